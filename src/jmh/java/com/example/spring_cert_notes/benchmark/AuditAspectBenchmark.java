@@ -0,0 +1,61 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.aop.AopConfig;
+import com.example.spring_cert_notes.aop.Auditable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: caller-side cost of @Auditable
+ * <p>
+ * PaymentServiceImpl.processPayment sleeps 50ms, which would hide the
+ * advice. AuditedPayment has the same signature and no body, so
+ * audited - plain is what AuditAspect adds to the request thread
+ * (event capture + queue offer; sink writes happen on the dispatcher).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditAspectBenchmark {
+
+    public static class AuditedPayment {
+        @Auditable(action = "PROCESS_PAYMENT")
+        public void processPayment(String orderId, double amount) {
+        }
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private AuditedPayment audited;
+    private AuditedPayment plain;
+
+    @Setup
+    public void setup() {
+        QuietStdout.mute();
+        // Large queue so the benchmark measures the offer, not drops
+        System.setProperty("aop.audit.queue-capacity", "1000000");
+        context = new AnnotationConfigApplicationContext(AopConfig.class, AuditedPayment.class);
+        audited = context.getBean(AuditedPayment.class);
+        plain = new AuditedPayment();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        QuietStdout.restore();
+    }
+
+    @Benchmark
+    public void auditedProcessPayment() {
+        audited.processPayment("ORD-1", 99.99);
+    }
+
+    @Benchmark
+    public void plainProcessPayment() {
+        plain.processPayment("ORD-1", 99.99);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.spring_cert_notes.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * BENCHMARK: platform-thread pool vs virtual threads for blocking work
+ * <p>
+ * Each task blocks for 100ms like aop.service.OrderService.createOrder.
+ * The platform pool has 200 threads (Tomcat's default max), so it can keep
+ * at most 200 tasks in flight; above that, tasks queue in waves.
+ * Virtual threads keep every task in flight at once.
+ * <p>
+ * Needs Java 21+ for the "virtual" parameter (VirtualThreadTaskExecutor
+ * throws on older runtimes).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingConcurrencyBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+    private static final long BLOCKING_MS = 100;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200", "1000", "5000"})
+    private int inFlight;
+
+    private ExecutorService platformPool;
+    private VirtualThreadTaskExecutor virtualExecutor;
+
+    @Setup
+    public void setup() {
+        if ("platform".equals(threads)) {
+            platformPool = Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+        } else {
+            virtualExecutor = new VirtualThreadTaskExecutor("bench-virtual-");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (platformPool != null) {
+            platformPool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public int completeAllRequests() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            futures.add(submit(BlockingConcurrencyBenchmark::blockingRequest));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+
+    private Future<?> submit(Runnable task) {
+        return platformPool != null ? platformPool.submit(task) : virtualExecutor.submit(task);
+    }
+
+    private static void blockingRequest() {
+        try {
+            Thread.sleep(BLOCKING_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
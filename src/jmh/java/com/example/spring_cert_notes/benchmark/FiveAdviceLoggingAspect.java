@@ -0,0 +1,77 @@
+package com.example.spring_cert_notes.benchmark;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Baseline for {@link LoggingAdviceLayoutBenchmark}: the previous
+ * LoggingAspect layout, five advices on the same pointcut, each resolving
+ * the join point signature on every call.
+ * <p>
+ * Not a @Component, so the aop package scan never picks it up; the
+ * benchmark registers it explicitly.
+ */
+@Aspect
+@Order(1)
+public class FiveAdviceLoggingAspect {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.spring_cert_notes.aop.LoggingAspect");
+
+    @Pointcut("execution(* com.example.spring_cert_notes.aop.service.*.*(..))")
+    public void serviceLayer() {}
+
+    @Before("serviceLayer()")
+    public void logBefore(JoinPoint joinPoint) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        String methodName = joinPoint.getSignature().getName();
+        String className = joinPoint.getTarget().getClass().getSimpleName();
+        log.debug("[BEFORE] {}.{}() - Args: {}", className, methodName, joinPoint.getArgs());
+    }
+
+    @After("serviceLayer()")
+    public void logAfter(JoinPoint joinPoint) {
+        if (log.isDebugEnabled()) {
+            log.debug("[AFTER] {}() completed (finally)", joinPoint.getSignature().getName());
+        }
+    }
+
+    @AfterReturning(pointcut = "serviceLayer()", returning = "result")
+    public void logAfterReturning(JoinPoint joinPoint, Object result) {
+        if (log.isDebugEnabled()) {
+            log.debug("[AFTER_RETURNING] {}() returned: {}", joinPoint.getSignature().getName(), result);
+        }
+    }
+
+    @AfterThrowing(pointcut = "serviceLayer()", throwing = "ex")
+    public void logAfterThrowing(JoinPoint joinPoint, Throwable ex) {
+        if (log.isDebugEnabled()) {
+            log.debug("[AFTER_THROWING] {}() threw: {} - {}",
+                joinPoint.getSignature().getName(), ex.getClass().getSimpleName(), ex.getMessage());
+        }
+    }
+
+    @Around("serviceLayer()")
+    public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!log.isDebugEnabled()) {
+            return joinPoint.proceed();
+        }
+        String methodName = joinPoint.getSignature().getName();
+        String className = joinPoint.getTarget().getClass().getSimpleName();
+        log.debug("[AROUND-START] {}.{}()", className, methodName);
+        long start = System.currentTimeMillis();
+        try {
+            Object result = joinPoint.proceed();
+            log.debug("[AROUND-END] {}() executed in {}ms", methodName, System.currentTimeMillis() - start);
+            return result;
+        } catch (Throwable ex) {
+            log.debug("[AROUND-ERROR] {}() failed after {}ms", methodName, System.currentTimeMillis() - start);
+            throw ex;
+        }
+    }
+}
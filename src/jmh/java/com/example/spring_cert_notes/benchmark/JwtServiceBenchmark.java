@@ -0,0 +1,65 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.security.jwt.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: JwtService token generation and parsing
+ * <p>
+ * - generateToken: HMAC signing + JSON serialization
+ * - extractUsername: repeated token (claims cache hit, as in JwtAuthenticationFilter)
+ * - extractUsernameUncached: cache disabled (max-size 0 bypasses it), full parse + signature verification
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "mySecretKey12345678901234567890123456789012345678901234567890";
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = newJwtService(10_000);
+        uncachedJwtService = newJwtService(0);
+        userDetails = User.withUsername("user").password("password").roles("USER").build();
+        token = jwtService.generateToken(userDetails);
+    }
+
+    private static JwtService newJwtService(long claimsCacheMaxSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(service, "claimsCacheMaxSize", claimsCacheMaxSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncachedJwtService.extractUsername(token);
+    }
+}
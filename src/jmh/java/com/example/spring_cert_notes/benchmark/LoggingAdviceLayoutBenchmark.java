@@ -0,0 +1,82 @@
+package com.example.spring_cert_notes.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.helpers.NOPAppender;
+import com.example.spring_cert_notes.aop.AopConfig;
+import com.example.spring_cert_notes.aop.LoggingAspect;
+import com.example.spring_cert_notes.aop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: merged LoggingAspect vs the previous five-advice layout
+ * <p>
+ * Both contexts contain the same aspects except for logging, so the
+ * difference is the proxy chain length plus per-call signature lookups.
+ * With level=INFO the logging advice is a level check only; with
+ * level=DEBUG every event is formatted and handed to a no-op appender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAdviceLayoutBenchmark {
+
+    @Param({"merged", "fiveAdvice"})
+    public String layout;
+
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private AnnotationConfigApplicationContext context;
+    private OrderService orderService;
+
+    @Setup
+    public void setup() {
+        QuietStdout.mute();
+        LoggerContext loggers = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = loggers.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        NOPAppender<ch.qos.logback.classic.spi.ILoggingEvent> nop = new NOPAppender<>();
+        nop.setContext(loggers);
+        nop.start();
+        root.addAppender(nop);
+        root.setLevel(Level.INFO);
+        loggers.getLogger("com.example.spring_cert_notes.aop").setLevel(Level.toLevel(level));
+
+        Class<?> config = "merged".equals(layout) ? AopConfig.class : FiveAdviceLayout.class;
+        context = new AnnotationConfigApplicationContext(config);
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        QuietStdout.restore();
+    }
+
+    @Benchmark
+    public String getOrderStatus() {
+        return orderService.getOrderStatus("ORD-1");
+    }
+
+    // AopConfig is excluded too, otherwise its own scan would bring LoggingAspect back
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @ComponentScan(basePackages = "com.example.spring_cert_notes.aop",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {AopConfig.class, LoggingAspect.class}))
+    @Import(FiveAdviceLoggingAspect.class)
+    static class FiveAdviceLayout {
+    }
+}
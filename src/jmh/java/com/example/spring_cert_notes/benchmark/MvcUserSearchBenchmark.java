@@ -0,0 +1,46 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.mvc.dto.UserDto;
+import com.example.spring_cert_notes.mvc.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: mvc.service.UserService.search over the in-memory store
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MvcUserSearchBenchmark {
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Brown", "Nguyen", "Tran", "Garcia"};
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    private UserService userService;
+
+    @Setup
+    public void setup() {
+        userService = new UserService();
+        for (int i = 0; i < users; i++) {
+            String lastName = LAST_NAMES[i % LAST_NAMES.length];
+            userService.create(new UserDto(null, "First" + i, lastName, "user" + i + "@example.com"));
+        }
+    }
+
+    @Benchmark
+    public List<UserDto> searchByLastName() {
+        return userService.search(null, "nguyen", null);
+    }
+
+    @Benchmark
+    public List<UserDto> searchAllFields() {
+        return userService.search("first1", "smith", "example.com");
+    }
+}
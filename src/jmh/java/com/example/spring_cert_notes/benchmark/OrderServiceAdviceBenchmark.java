@@ -0,0 +1,51 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.aop.AopConfig;
+import com.example.spring_cert_notes.aop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: AOP advice chain on aop.service.OrderService
+ * <p>
+ * getOrderStatus has no sleep, so the difference between the proxied bean
+ * and a plain instance is the cost of the advice chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderServiceAdviceBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private OrderService proxied;
+    private OrderService plain;
+
+    @Setup
+    public void setup() {
+        QuietStdout.mute();
+        context = new AnnotationConfigApplicationContext(AopConfig.class);
+        proxied = context.getBean(OrderService.class);
+        plain = new OrderService();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        QuietStdout.restore();
+    }
+
+    @Benchmark
+    public String proxiedGetOrderStatus() {
+        return proxied.getOrderStatus("ORD-1");
+    }
+
+    @Benchmark
+    public String plainGetOrderStatus() {
+        return plain.getOrderStatus("ORD-1");
+    }
+}
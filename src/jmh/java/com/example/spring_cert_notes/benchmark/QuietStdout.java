@@ -0,0 +1,32 @@
+package com.example.spring_cert_notes.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Redirects System.out to a null stream while a benchmark runs.
+ * <p>
+ * The demo code prints on almost every call; without this the numbers
+ * would measure terminal I/O instead of the code under test.
+ * String building still happens, so its cost stays in the result.
+ */
+final class QuietStdout {
+
+    private static PrintStream original;
+
+    private QuietStdout() {}
+
+    static synchronized void mute() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void restore() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
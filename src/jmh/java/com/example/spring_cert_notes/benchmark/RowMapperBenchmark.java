@@ -0,0 +1,79 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.data.jdbc.User;
+import com.example.spring_cert_notes.data.jdbc.UserDao;
+import com.example.spring_cert_notes.data.jdbc.UserRowMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: UserRowMapper (class) vs lambda RowMapper in UserDao
+ * <p>
+ * Both read the same rows from embedded H2; the difference is the mapping path
+ * (no-arg constructor + setters vs all-args constructor).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    private static final String SQL = "SELECT * FROM users";
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RowMapper<User> classMapper;
+    private RowMapper<User> lambdaMapper;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        QuietStdout.mute();
+        dataSource = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("classpath:schema.sql")
+            .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{"user" + i, "user" + i + "@example.com", i * 1.5});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email, balance) VALUES (?, ?, ?)", batch);
+
+        classMapper = new UserRowMapper();
+        UserDao userDao = new UserDao(jdbcTemplate, dataSource, (UserRowMapper) classMapper);
+        lambdaMapper = (RowMapper<User>) ReflectionTestUtils.getField(userDao, "lambdaMapper");
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.shutdown();
+        QuietStdout.restore();
+    }
+
+    @Benchmark
+    public List<User> userRowMapper() {
+        return jdbcTemplate.query(SQL, classMapper);
+    }
+
+    @Benchmark
+    public List<User> lambdaMapper() {
+        return jdbcTemplate.query(SQL, lambdaMapper);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.spring_cert_notes.benchmark;
+
+import com.example.spring_cert_notes.data.jpa.JpaConfig;
+import com.example.spring_cert_notes.data.jpa.entity.User;
+import com.example.spring_cert_notes.data.jpa.specification.UserSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BENCHMARK: UserSpecifications predicate building
+ * <p>
+ * Measures composing the Specification chain used by
+ * data.jpa.service.UserService.searchUsers and turning it into a
+ * Criteria Predicate. No SQL is executed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserSpecificationsBenchmark {
+
+    private AnnotationConfigApplicationContext context;
+    private EntityManager entityManager;
+    private CriteriaBuilder cb;
+
+    @Setup
+    public void setup() {
+        QuietStdout.mute();
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+        QuietStdout.restore();
+    }
+
+    @Benchmark
+    public Predicate allFilters() {
+        Specification<User> spec = UserSpecifications.hasFirstName("ali")
+            .and(UserSpecifications.hasLastName("smi"))
+            .and(UserSpecifications.hasEmailDomain("@gmail.com"))
+            .and(UserSpecifications.isActive(true));
+        return toPredicate(spec);
+    }
+
+    @Benchmark
+    public Predicate noFilters() {
+        Specification<User> spec = UserSpecifications.hasFirstName(null)
+            .and(UserSpecifications.hasLastName(null))
+            .and(UserSpecifications.hasEmailDomain(null))
+            .and(UserSpecifications.isActive(null));
+        return toPredicate(spec);
+    }
+
+    private Predicate toPredicate(Specification<User> spec) {
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+        return spec.toPredicate(root, query, cb);
+    }
+}
@@ -42,6 +42,7 @@ public class Prefixes {
     public static final String BOOT_STARTER = "🟩 [BOOT/STARTER] ";
     public static final String BOOT_ACTUATOR = "🟥 [BOOT/ACTUATOR] ";
     public static final String BOOT_METRICS = "🟧 [BOOT/METRICS] ";
+    public static final String BOOT_THREADS = "🟨 [BOOT/THREADS] ";
     public static final String BOOT = "🟫 [BOOT] ";;
 }
 
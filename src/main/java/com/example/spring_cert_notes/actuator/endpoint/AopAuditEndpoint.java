@@ -0,0 +1,58 @@
+package com.example.spring_cert_notes.actuator.endpoint;
+
+import com.example.spring_cert_notes.aop.audit.AuditEvent;
+import com.example.spring_cert_notes.aop.audit.RingBufferAuditSink;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CUSTOM ENDPOINT: /actuator/aopaudit
+ * 
+ * Các audit events gần nhất của AuditAspect, đọc từ RingBufferAuditSink
+ * (sink "memory", mặc định của aop.audit.sinks). Id khác "auditevents"
+ * để không trùng endpoint có sẵn của Spring Boot.
+ */
+@Component
+@Endpoint(id = "aopaudit")
+public class AopAuditEndpoint {
+    
+    private final RingBufferAuditSink sink;
+    
+    public AopAuditEndpoint(RingBufferAuditSink sink) {
+        this.sink = sink;
+    }
+    
+    /**
+     * GET /actuator/aopaudit
+     * 
+     * Events mới nhất trước
+     */
+    @ReadOperation
+    public Map<String, Object> recent() {
+        List<AuditEvent> events = sink.recent();
+        List<Map<String, Object>> rows = new ArrayList<>(events.size());
+        for (int i = events.size() - 1; i >= 0; i--) {
+            AuditEvent event = events.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("timestamp", Instant.ofEpochMilli(event.timestamp()).toString());
+            row.put("principal", event.principal());
+            row.put("action", event.action());
+            row.put("method", event.method());
+            row.put("args", event.args());
+            row.put("result", event.result());
+            rows.add(row);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", rows.size());
+        result.put("events", rows);
+        return result;
+    }
+}
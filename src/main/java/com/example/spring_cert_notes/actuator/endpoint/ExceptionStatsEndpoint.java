@@ -0,0 +1,80 @@
+package com.example.spring_cert_notes.actuator.endpoint;
+
+import com.example.spring_cert_notes.aop.ExceptionStats;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CUSTOM ENDPOINT: /actuator/exceptions
+ * 
+ * Thống kê exceptions do ExceptionHandlingAspect gom theo fingerprint
+ * (type + top frames): số lần, số log bị rate-limit chặn, stack trace mẫu.
+ */
+@Component
+@Endpoint(id = "exceptions")
+public class ExceptionStatsEndpoint {
+    
+    private final ExceptionStats stats;
+    
+    public ExceptionStatsEndpoint(ExceptionStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * GET /actuator/exceptions
+     * 
+     * Tất cả fingerprints, nhiều nhất trước (không kèm stack trace)
+     */
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Collection<ExceptionStats.FingerprintStats> rows = stats.snapshot();
+        long total = 0;
+        Map<String, Object> fingerprints = new LinkedHashMap<>();
+        for (ExceptionStats.FingerprintStats row : rows) {
+            total += row.getCount();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", row.getType());
+            entry.put("method", row.getFirstMethod());
+            entry.put("count", row.getCount());
+            entry.put("suppressedLogs", row.getSuppressedLogs());
+            entry.put("lastSeen", Instant.ofEpochMilli(row.getLastSeen()).toString());
+            entry.put("lastMessage", row.getLastMessage());
+            fingerprints.put(row.getId(), entry);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total);
+        result.put("distinct", rows.size());
+        result.put("fingerprints", fingerprints);
+        return result;
+    }
+    
+    /**
+     * GET /actuator/exceptions/{id}
+     * 
+     * Chi tiết 1 fingerprint, kèm top frames và stack trace mẫu
+     */
+    @ReadOperation
+    public ExceptionStats.FingerprintStats fingerprint(@Selector String id) {
+        return stats.get(id);
+    }
+    
+    /**
+     * DELETE /actuator/exceptions
+     * 
+     * Reset thống kê (ví dụ sau khi xử lý xong sự cố)
+     */
+    @DeleteOperation
+    public Map<String, String> reset() {
+        stats.reset();
+        return Map.of("status", "reset");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.spring_cert_notes.actuator.endpoint;
+
+import com.example.spring_cert_notes.actuator.metrics.BusinessMetrics;
+import com.example.spring_cert_notes.actuator.metrics.HeavyHittersSketch;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CUSTOM ENDPOINT: /actuator/logins
+ *
+ * Tần suất login theo user từ Count-Min Sketch của BusinessMetrics.
+ * Metrics chỉ export top-K (user.logins.top); endpoint này cho phép
+ * tra cứu estimate của bất kỳ user nào.
+ */
+@Component
+@Endpoint(id = "logins")
+public class LoginFrequencyEndpoint {
+
+    private final HeavyHittersSketch sketch;
+
+    public LoginFrequencyEndpoint(BusinessMetrics businessMetrics) {
+        this.sketch = businessMetrics.getLoginFrequencies();
+    }
+
+    /**
+     * GET /actuator/logins
+     *
+     * Thông số sketch và top-K users
+     */
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> topK = new LinkedHashMap<>();
+        for (HeavyHittersSketch.Entry entry : sketch.topK()) {
+            topK.put(entry.key(), entry.estimate());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", sketch.total());
+        result.put("width", sketch.width());
+        result.put("depth", sketch.depth());
+        result.put("epsilon", sketch.epsilon());
+        result.put("confidence", sketch.confidence());
+        result.put("errorBound", sketch.errorBound());
+        result.put("topK", topK);
+        return result;
+    }
+
+    /**
+     * GET /actuator/logins/{username}
+     *
+     * Estimate của 1 user (>= số lần thật, lệch tối đa errorBound)
+     */
+    @ReadOperation
+    public Map<String, Object> user(@Selector String username) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("username", username);
+        result.put("estimate", sketch.estimate(username));
+        result.put("errorBound", sketch.errorBound());
+        result.put("topK", sketch.isTopK(username));
+        return result;
+    }
+
+    /**
+     * DELETE /actuator/logins
+     *
+     * Reset sketch (ví dụ bắt đầu cửa sổ đo mới)
+     */
+    @DeleteOperation
+    public Map<String, String> reset() {
+        sketch.reset();
+        return Map.of("status", "reset");
+    }
+}
@@ -1,78 +1,200 @@
 package com.example.spring_cert_notes.actuator.health;
 
+import com.example.spring_cert_notes.actuator.service.FulfillmentQueue;
+import com.example.spring_cert_notes.actuator.service.UserProfileCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.*;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BÀI 1E: COMPOSITE HEALTH INDICATOR
- * 
+ *
  * Kết hợp nhiều health checks thành một group.
  * Sử dụng CompositeHealthContributor để group related health checks.
+ *
+ * Children đọc số liệu thật:
+ * - cache: UserProfileCache (Caffeine stats) - hit ratio, eviction ratio (chỉ eviction do SIZE)
+ * - messageQueue: FulfillmentQueue - depth, rate, consumer lag, rejected
+ * Ngưỡng cấu hình qua app.health.cache.* và app.health.queue.*
+ *
+ * Cửa sổ đánh giá dời theo thời gian, không theo số lần gọi health():
+ * mọi probe/group gọi trong cùng khoảng thời gian đều thấy cùng kết luận.
  */
 @Component("infrastructure")
 public class CompositeHealthIndicator implements CompositeHealthContributor {
-    
-    private final Map<String, HealthContributor> contributors = new HashMap<>();
-    
-    public CompositeHealthIndicator() {
+
+    private final Map<String, HealthContributor> contributors = new LinkedHashMap<>();
+
+    public CompositeHealthIndicator(
+            UserProfileCache profileCache,
+            FulfillmentQueue fulfillmentQueue,
+            @Value("${app.health.cache.min-requests:100}") long cacheMinRequests,
+            @Value("${app.health.cache.min-hit-ratio:0.5}") double cacheMinHitRatio,
+            @Value("${app.health.cache.max-eviction-ratio:0.2}") double cacheMaxEvictionRatio,
+            @Value("${app.health.cache.window-seconds:60}") long cacheWindowSeconds,
+            @Value("${app.health.queue.warning-fill-ratio:0.7}") double queueWarningFill,
+            @Value("${app.health.queue.down-fill-ratio:0.95}") double queueDownFill,
+            @Value("${app.health.queue.warning-lag-ms:5000}") long queueWarningLagMs,
+            @Value("${app.health.queue.down-lag-ms:30000}") long queueDownLagMs,
+            @Value("${app.health.queue.rejected-window-seconds:60}") long queueRejectedWindowSeconds) {
         // Add sub-health indicators
-        contributors.put("cache", new CacheHealthIndicator());
-        contributors.put("messageQueue", new MessageQueueHealthIndicator());
+        contributors.put("cache", new CacheHealthIndicator(
+            profileCache, cacheMinRequests, cacheMinHitRatio, cacheMaxEvictionRatio, cacheWindowSeconds));
+        contributors.put("messageQueue", new MessageQueueHealthIndicator(
+            fulfillmentQueue, queueWarningFill, queueDownFill, queueWarningLagMs, queueDownLagMs,
+            queueRejectedWindowSeconds));
     }
-    
+
     @Override
     public HealthContributor getContributor(String name) {
         return contributors.get(name);
     }
-    
+
     @Override
     public java.util.Iterator<NamedContributor<HealthContributor>> iterator() {
         return contributors.entrySet().stream()
             .map(entry -> NamedContributor.of(entry.getKey(), entry.getValue()))
             .iterator();
     }
-    
+
     // Sub-indicator: Cache
     private static class CacheHealthIndicator implements HealthIndicator {
+
+        /**
+         * Số liệu cộng dồn tại 1 thời điểm: Caffeine stats + eviction do SIZE
+         */
+        private record Sample(CacheStats stats, long sizeEvictions) {
+
+            Sample minus(Sample other) {
+                return new Sample(stats.minus(other.stats), sizeEvictions - other.sizeEvictions);
+            }
+        }
+
+        private final UserProfileCache cache;
+        private final long minRequests;
+        private final double minHitRatio;
+        private final double maxEvictionRatio;
+        private final long windowNanos;
+
+        // Đầu cửa sổ đang chạy: dời khi cửa sổ đủ window-seconds VÀ đủ minRequests
+        private Sample windowStart = new Sample(CacheStats.empty(), 0);
+        private long windowStartNanos = System.nanoTime();
+        // Cửa sổ đã đóng gần nhất - health() kết luận dựa trên cửa sổ này
+        private Sample lastWindow;
+
+        CacheHealthIndicator(UserProfileCache cache, long minRequests,
+                             double minHitRatio, double maxEvictionRatio, long windowSeconds) {
+            this.cache = cache;
+            this.minRequests = minRequests;
+            this.minHitRatio = minHitRatio;
+            this.maxEvictionRatio = maxEvictionRatio;
+            this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        }
+
         @Override
-        public Health health() {
-            // Simulate cache health check
-            boolean cacheAvailable = true;
-            int hitRate = 85;
-            
-            if (cacheAvailable) {
-                return Health.up()
-                    .withDetail("type", "In-Memory Cache")
-                    .withDetail("hitRate", hitRate + "%")
-                    .withDetail("size", "1024 entries")
-                    .build();
+        public synchronized Health health() {
+            long now = System.nanoTime();
+            Sample total = new Sample(cache.stats(), cache.sizeEvictionCount());
+            Sample current = total.minus(windowStart);
+            if (now - windowStartNanos >= windowNanos && current.stats().requestCount() >= minRequests) {
+                lastWindow = current;
+                windowStart = total;
+                windowStartNanos = now;
+            }
+
+            Health.Builder builder;
+            if (lastWindow == null) {
+                // Chưa có cửa sổ nào đủ số liệu để kết luận
+                builder = Health.up()
+                    .withDetail("note", "Waiting for " + minRequests + " requests in window");
+            } else {
+                CacheStats window = lastWindow.stats();
+                double evictionRatio = window.loadCount() == 0
+                    ? 0.0 : (double) lastWindow.sizeEvictions() / window.loadCount();
+                if (window.hitRate() < minHitRatio) {
+                    builder = Health.status("WARNING")
+                        .withDetail("warning", "Hit ratio below " + minHitRatio);
+                } else if (evictionRatio > maxEvictionRatio) {
+                    builder = Health.status("WARNING")
+                        .withDetail("warning", "Eviction ratio above " + maxEvictionRatio + " (cache too small?)");
+                } else {
+                    builder = Health.up();
+                }
+                builder.withDetail("windowRequests", window.requestCount())
+                    .withDetail("windowHitRate", String.format("%.2f%%", window.hitRate() * 100))
+                    .withDetail("evictionRatio", String.format("%.2f", evictionRatio));
             }
-            return Health.down()
-                .withDetail("error", "Cache unavailable")
+
+            CacheStats stats = total.stats();
+            return builder
+                .withDetail("type", "In-Memory Cache (Caffeine)")
+                .withDetail("window", TimeUnit.NANOSECONDS.toSeconds(windowNanos) + "s")
+                .withDetail("currentWindowRequests", current.stats().requestCount())
+                .withDetail("hits", stats.hitCount())
+                .withDetail("misses", stats.missCount())
+                .withDetail("sizeEvictions", total.sizeEvictions())
+                .withDetail("evictions", stats.evictionCount())
+                .withDetail("size", cache.estimatedSize() + "/" + cache.maximumSize() + " entries")
                 .build();
         }
     }
-    
+
     // Sub-indicator: Message Queue
     private static class MessageQueueHealthIndicator implements HealthIndicator {
+
+        private final FulfillmentQueue queue;
+        private final double warningFill;
+        private final double downFill;
+        private final long warningLagMs;
+        private final long downLagMs;
+        private final long rejectedWindowMs;
+
+        MessageQueueHealthIndicator(FulfillmentQueue queue, double warningFill, double downFill,
+                                    long warningLagMs, long downLagMs, long rejectedWindowSeconds) {
+            this.queue = queue;
+            this.warningFill = warningFill;
+            this.downFill = downFill;
+            this.warningLagMs = warningLagMs;
+            this.downLagMs = downLagMs;
+            this.rejectedWindowMs = TimeUnit.SECONDS.toMillis(rejectedWindowSeconds);
+        }
+
         @Override
         public Health health() {
-            // Simulate message queue health check
-            boolean queueAvailable = true;
-            int pendingMessages = 42;
-            
-            if (queueAvailable) {
-                return Health.up()
-                    .withDetail("type", "In-Memory Queue")
-                    .withDetail("pendingMessages", pendingMessages)
-                    .withDetail("consumers", 3)
-                    .build();
+            FulfillmentQueue.Snapshot snapshot = queue.snapshot();
+            double fill = (double) snapshot.depth() / snapshot.capacity();
+            // Dựa trên thời điểm reject gần nhất → không bị "tiêu thụ" bởi probe gọi trước
+            boolean recentlyRejected = snapshot.lastRejectedAgoMs() >= 0
+                && snapshot.lastRejectedAgoMs() < rejectedWindowMs;
+
+            Health.Builder builder;
+            if (fill >= downFill || snapshot.consumerLagMs() >= downLagMs) {
+                builder = Health.down()
+                    .withDetail("error", "Queue saturated or consumers stalled");
+            } else if (fill >= warningFill || snapshot.consumerLagMs() >= warningLagMs || recentlyRejected) {
+                builder = Health.status("WARNING")
+                    .withDetail("warning", "Queue backing up");
+            } else {
+                builder = Health.up();
             }
-            return Health.down()
-                .withDetail("error", "Queue unavailable")
+
+            return builder
+                .withDetail("type", "In-Memory Queue (bounded)")
+                .withDetail("pendingMessages", snapshot.depth())
+                .withDetail("capacity", snapshot.capacity())
+                .withDetail("fill", String.format("%.2f%%", fill * 100))
+                .withDetail("consumers", snapshot.consumers())
+                .withDetail("enqueueRate", String.format("%.2f/s", snapshot.enqueueRate()))
+                .withDetail("dequeueRate", String.format("%.2f/s", snapshot.dequeueRate()))
+                .withDetail("consumerLag", snapshot.consumerLagMs() + "ms")
+                .withDetail("lastRejected", snapshot.lastRejectedAgoMs() < 0
+                    ? "never" : snapshot.lastRejectedAgoMs() + "ms ago")
+                .withDetail("rejectedTotal", snapshot.rejected())
                 .build();
         }
     }
@@ -1,60 +1,224 @@
 package com.example.spring_cert_notes.actuator.health;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BÀI 1B: CUSTOM HEALTH INDICATOR - Database
- * 
- * Kiểm tra health của database connection.
- * Thực hiện simple query để verify connection.
+ *
+ * Kiểm tra health của database connection pool.
+ *
+ * Mượn connection + SELECT 1 ở mỗi probe làm probe tranh slot với traffic
+ * thật đúng lúc pool đang căng. Thay vào đó:
+ * - health() chỉ đọc số liệu pool (HikariPoolMXBean): active/idle/pending
+ * - Acquire time percentiles từ timer hikaricp.connections.acquire
+ * - Validation (Connection.isValid) chạy nền theo lịch, và bị bỏ qua khi
+ *   pool không còn connection rảnh hoặc có thread đang chờ
+ * - pending > saturation-pending-threshold → WARNING (pool bão hòa)
+ * - Validation gần nhất thất bại → DOWN
+ * - Validation gần nhất cũ hơn stale-after-intervals lần validation-interval
+ *   (bị bỏ qua liên tục do pool căng, hoặc validator treo) → UNKNOWN kèm kết quả cuối,
+ *   không báo mãi 1 kết quả UP/DOWN cũ
  */
 @Component("customDatabase")
 public class DatabaseHealthIndicator implements HealthIndicator {
-    
+
+    private record Validation(boolean valid, long responseTimeMs, Instant checkedAt, String error) {}
+
     private final DataSource dataSource;
-    
-    public DatabaseHealthIndicator(DataSource dataSource) {
+    private final HikariDataSource hikari;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long validationIntervalSeconds;
+    private final int validationTimeoutSeconds;
+    private final int saturationPendingThreshold;
+    private final long staleAfterMs;
+
+    private volatile Validation lastValidation;
+    private volatile Map<String, Object> databaseInfo;
+    private volatile long skippedValidations;
+    private ScheduledExecutorService validator;
+
+    public DatabaseHealthIndicator(
+            DataSource dataSource,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.health.database.validation-interval-seconds:30}") long validationIntervalSeconds,
+            @Value("${app.health.database.validation-timeout-seconds:2}") int validationTimeoutSeconds,
+            @Value("${app.health.database.saturation-pending-threshold:1}") int saturationPendingThreshold,
+            @Value("${app.health.database.stale-after-intervals:3}") int staleAfterIntervals) {
         this.dataSource = dataSource;
+        this.hikari = unwrapHikari(dataSource);
+        this.meterRegistry = meterRegistry;
+        this.validationIntervalSeconds = validationIntervalSeconds;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.saturationPendingThreshold = saturationPendingThreshold;
+        this.staleAfterMs = TimeUnit.SECONDS.toMillis(validationIntervalSeconds) * staleAfterIntervals;
+    }
+
+    @PostConstruct
+    void startValidation() {
+        validator = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "db-health-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        validator.scheduleWithFixedDelay(this::validate, 0, validationIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stopValidation() {
+        if (validator != null) {
+            validator.shutdownNow();
+        }
     }
-    
+
     @Override
     public Health health() {
+        HikariPoolMXBean pool = poolMXBean();
+        Validation validation = lastValidation;
+        long validationAgeMs = validation == null ? 0
+            : System.currentTimeMillis() - validation.checkedAt().toEpochMilli();
+        boolean stale = validation != null && validationAgeMs > staleAfterMs;
+        boolean saturated = pool != null && pool.getThreadsAwaitingConnection() > saturationPendingThreshold;
+
+        Health.Builder builder;
+        if (validation != null && !stale && !validation.valid()) {
+            builder = Health.down()
+                .withDetail("error", validation.error());
+        } else if (saturated) {
+            builder = Health.status("WARNING")
+                .withDetail("warning", "Connection pool saturated");
+        } else if (validation == null) {
+            builder = Health.unknown()
+                .withDetail("status", "Not validated yet");
+        } else if (stale) {
+            builder = Health.unknown()
+                .withDetail("status", "Validation stale")
+                .withDetail("lastStatus", validation.valid() ? "UP" : "DOWN");
+        } else {
+            builder = Health.up()
+                .withDetail("status", "Connected");
+        }
+
+        Map<String, Object> info = databaseInfo;
+        if (info != null) {
+            builder.withDetails(info);
+        }
+        if (pool != null) {
+            builder.withDetail("pool", hikari.getPoolName())
+                .withDetail("active", pool.getActiveConnections())
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("pending", pool.getThreadsAwaitingConnection())
+                .withDetail("total", pool.getTotalConnections())
+                .withDetail("max", hikari.getMaximumPoolSize())
+                .withDetail("saturated", saturated);
+            Map<String, String> acquire = acquirePercentiles(hikari.getPoolName());
+            if (!acquire.isEmpty()) {
+                builder.withDetail("acquireTime", acquire);
+            }
+        }
+        if (validation != null) {
+            builder.withDetail("lastValidation", validation.checkedAt().toString())
+                .withDetail("validationTime", validation.responseTimeMs() + "ms")
+                .withDetail("validationAge", validationAgeMs + "ms")
+                .withDetail("stale", stale);
+        }
+        return builder
+            .withDetail("skippedValidations", skippedValidations)
+            .build();
+    }
+
+    /**
+     * Chạy trên thread validator. Không được ném exception, nếu không
+     * ScheduledExecutorService sẽ dừng lịch validation.
+     */
+    void validate() {
+        HikariPoolMXBean pool = poolMXBean();
+        // Pool đang căng: không lấy thêm connection chỉ để kiểm tra
+        if (pool != null && lastValidation != null
+                && (pool.getIdleConnections() == 0 || pool.getThreadsAwaitingConnection() > 0)) {
+            skippedValidations++;
+            return;
+        }
+
         long startTime = System.currentTimeMillis();
-        
-        try (Connection connection = dataSource.getConnection();
-             Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery("SELECT 1")) {
-            
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(validationTimeoutSeconds);
             long responseTime = System.currentTimeMillis() - startTime;
-            
-            if (resultSet.next()) {
-                return Health.up()
-                    .withDetail("database", connection.getMetaData().getDatabaseProductName())
-                    .withDetail("version", connection.getMetaData().getDatabaseProductVersion())
-                    .withDetail("url", connection.getMetaData().getURL())
-                    .withDetail("status", "Connected")
-                    .withDetail("responseTime", responseTime + "ms")
-                    .withDetail("validationQuery", "SELECT 1")
-                    .build();
+            if (databaseInfo == null) {
+                databaseInfo = readDatabaseInfo(connection.getMetaData());
             }
-            
-            return Health.down()
-                .withDetail("error", "Validation query returned no results")
-                .build();
-                
+            lastValidation = new Validation(valid, responseTime, Instant.now(),
+                valid ? null : "Connection validation failed");
         } catch (Exception e) {
-            return Health.down()
-                .withDetail("database", "Unknown")
-                .withDetail("error", e.getMessage())
-                .withException(e)
-                .build();
+            lastValidation = new Validation(false, System.currentTimeMillis() - startTime, Instant.now(),
+                String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Metadata không đổi, chỉ đọc 1 lần
+     */
+    private Map<String, Object> readDatabaseInfo(DatabaseMetaData metaData) throws SQLException {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("database", metaData.getDatabaseProductName());
+        info.put("version", metaData.getDatabaseProductVersion());
+        info.put("url", metaData.getURL());
+        return info;
+    }
+
+    private HikariPoolMXBean poolMXBean() {
+        // Null cho tới khi pool khởi tạo, hoặc nếu DataSource không phải Hikari
+        return hikari != null ? hikari.getHikariPoolMXBean() : null;
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Percentiles cần management.metrics.distribution.percentiles.hikaricp.connections.acquire
+     */
+    private Map<String, String> acquirePercentiles(String poolName) {
+        Map<String, String> result = new LinkedHashMap<>();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return result;
+        }
+        Timer timer = registry.find("hikaricp.connections.acquire").tag("pool", poolName).timer();
+        if (timer == null) {
+            return result;
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            result.put("p" + Math.round(percentile.percentile() * 100),
+                String.format("%.2fms", percentile.value(TimeUnit.MILLISECONDS)));
         }
+        result.put("max", String.format("%.2fms", timer.max(TimeUnit.MILLISECONDS)));
+        return result;
     }
 }
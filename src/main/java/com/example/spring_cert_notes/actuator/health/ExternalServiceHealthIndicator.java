@@ -1,70 +1,155 @@
 package com.example.spring_cert_notes.actuator.health;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BÀI 1: CUSTOM HEALTH INDICATOR - External Service
- * 
+ *
  * Kiểm tra health của external service (API bên ngoài).
  * Hiển thị trong /actuator/health dưới tên "externalService"
+ *
+ * Gọi HTTP ngay trong health() làm mỗi lần probe phải chờ service ngoài
+ * (tới timeout). Thay vào đó:
+ * - Thread nền poll service theo poll-interval, lưu kết quả vào snapshot
+ * - health() chỉ đọc snapshot trong bộ nhớ, không bao giờ block
+ * - Snapshot cũ hơn stale-after (poller bị treo/chậm) → UNKNOWN kèm kết quả cuối
+ * - Poller chạy trên virtual thread khi spring.threads.virtual.enabled=true (Java 21+)
  */
 @Component("externalService")
 public class ExternalServiceHealthIndicator implements HealthIndicator {
-    
-    private static final String SERVICE_URL = "https://httpbin.org/status/200";
-    private static final int TIMEOUT_MS = 5000;
-    
+
+    private record Snapshot(Health health, long checkedAt) {}
+
+    private final String serviceUrl;
+    private final int timeoutMs;
+    private final long pollIntervalMs;
+    private final long staleAfterMs;
+    private final boolean virtualThreads;
+
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService poller;
+
+    public ExternalServiceHealthIndicator(
+            @Value("${app.health.external.url:https://httpbin.org/status/200}") String serviceUrl,
+            @Value("${app.health.external.timeout-ms:5000}") int timeoutMs,
+            @Value("${app.health.external.poll-interval-seconds:30}") long pollIntervalSeconds,
+            @Value("${app.health.external.stale-after-seconds:90}") long staleAfterSeconds,
+            Environment environment) {
+        this.serviceUrl = serviceUrl;
+        this.timeoutMs = timeoutMs;
+        this.pollIntervalMs = TimeUnit.SECONDS.toMillis(pollIntervalSeconds);
+        this.staleAfterMs = TimeUnit.SECONDS.toMillis(staleAfterSeconds);
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.snapshot = new Snapshot(Health.unknown()
+            .withDetail("service", "External API")
+            .withDetail("url", serviceUrl)
+            .withDetail("status", "Not checked yet")
+            .build(), System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void startPolling() {
+        ThreadFactory threadFactory = virtualThreads
+            ? new VirtualThreadTaskExecutor("external-health-poller-").getVirtualThreadFactory()
+            : task -> {
+                Thread thread = new Thread(task, "external-health-poller");
+                thread.setDaemon(true);
+                return thread;
+            };
+        poller = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        // Fixed delay: lần check chậm không làm các lần sau dồn lại
+        poller.scheduleWithFixedDelay(this::refresh, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopPolling() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
     @Override
     public Health health() {
+        Snapshot current = snapshot;
+        long age = System.currentTimeMillis() - current.checkedAt();
+
+        if (age > staleAfterMs) {
+            return Health.unknown()
+                .withDetails(current.health().getDetails())
+                .withDetail("lastStatus", current.health().getStatus().getCode())
+                .withDetail("stale", true)
+                .withDetail("age", age + "ms")
+                .build();
+        }
+        return current.health();
+    }
+
+    /**
+     * Chạy trên thread poller. Không được ném exception, nếu không
+     * ScheduledExecutorService sẽ dừng lịch poll.
+     */
+    void refresh() {
         long startTime = System.currentTimeMillis();
-        
+        Health health;
+
         try {
-            boolean isAvailable = checkServiceAvailability();
+            int responseCode = checkServiceAvailability();
             long responseTime = System.currentTimeMillis() - startTime;
-            
-            if (isAvailable) {
-                return Health.up()
+
+            if (responseCode == 200) {
+                health = Health.up()
                     .withDetail("service", "External API")
-                    .withDetail("url", SERVICE_URL)
+                    .withDetail("url", serviceUrl)
                     .withDetail("status", "Available")
                     .withDetail("responseTime", responseTime + "ms")
+                    .withDetail("checkedAt", Instant.ofEpochMilli(startTime).toString())
                     .build();
             } else {
-                return Health.down()
+                health = Health.down()
                     .withDetail("service", "External API")
-                    .withDetail("url", SERVICE_URL)
-                    .withDetail("error", "Service returned non-200 status")
+                    .withDetail("url", serviceUrl)
+                    .withDetail("error", "Service returned status " + responseCode)
+                    .withDetail("checkedAt", Instant.ofEpochMilli(startTime).toString())
                     .build();
             }
         } catch (Exception e) {
-            return Health.down()
+            health = Health.down()
                 .withDetail("service", "External API")
-                .withDetail("url", SERVICE_URL)
-                .withDetail("error", e.getMessage())
+                .withDetail("url", serviceUrl)
+                .withDetail("error", String.valueOf(e.getMessage()))
+                .withDetail("checkedAt", Instant.ofEpochMilli(startTime).toString())
                 .withException(e)
                 .build();
         }
+
+        snapshot = new Snapshot(health, System.currentTimeMillis());
     }
-    
-    private boolean checkServiceAvailability() {
+
+    private int checkServiceAvailability() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(serviceUrl).toURL().openConnection();
         try {
-            URL url = new URL(SERVICE_URL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
-            connection.setConnectTimeout(TIMEOUT_MS);
-            connection.setReadTimeout(TIMEOUT_MS);
-            
-            int responseCode = connection.getResponseCode();
+            connection.setConnectTimeout(timeoutMs);
+            connection.setReadTimeout(timeoutMs);
+            return connection.getResponseCode();
+        } finally {
             connection.disconnect();
-            
-            return responseCode == 200;
-        } catch (Exception e) {
-            return false;
         }
     }
 }
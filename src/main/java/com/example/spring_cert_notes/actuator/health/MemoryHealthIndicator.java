@@ -1,52 +1,228 @@
 package com.example.spring_cert_notes.actuator.health;
 
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 /**
  * BÀI 1D: CUSTOM HEALTH INDICATOR - Memory
- * 
- * Kiểm tra memory usage của JVM.
+ *
+ * Kiểm tra áp lực bộ nhớ/GC của JVM.
+ *
+ * Runtime.totalMemory/freeMemory dao động theo chu kỳ GC nên không nói lên
+ * được gì. Thay vào đó:
+ * - Old gen sau GC (MemoryPoolMXBean.getCollectionUsage): live set thật
+ * - GC notifications (GarbageCollectorMXBean): thời gian pause, lượng heap
+ *   được cấp phát giữa 2 lần GC → allocation rate
+ * - Cửa sổ trượt window-seconds: GC overhead = tổng pause / độ dài cửa sổ
+ *   (cả lúc cửa sổ chưa đầy sau khởi động, detail warmingUp=true)
+ *
+ * Trạng thái dựa trên áp lực GC kéo dài trong cửa sổ, không phải heap tức thời:
+ * - WARNING: overhead >= gc-overhead-warning, hoặc old gen sau GC >= old-gen-warning
+ * - DOWN: overhead >= gc-overhead-down, hoặc old gen sau GC >= old-gen-down
+ *   cùng lúc overhead >= gc-overhead-warning (GC chạy liên tục mà không giải phóng được)
+ *
+ * health() chỉ đọc số liệu đã gom, không gọi System.gc() hay duyệt heap.
  */
 @Component("memory")
 public class MemoryHealthIndicator implements HealthIndicator {
-    
-    private static final double WARNING_THRESHOLD = 0.8; // 80%
-    private static final double CRITICAL_THRESHOLD = 0.9; // 90%
-    
+
+    private record GcEvent(long endedAtMs, long pauseMs, long allocatedBytes) {}
+
+    private final long windowMs;
+    private final double gcOverheadWarning;
+    private final double gcOverheadDown;
+    private final double oldGenWarning;
+    private final double oldGenDown;
+
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<MemoryPoolMXBean> oldGenPools = new ArrayList<>();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener listener = this::onGarbageCollection;
+
+    // Chỉ truy cập trong synchronized (this)
+    private final Deque<GcEvent> window = new ArrayDeque<>();
+    private long heapAfterLastGc = -1;
+    private final long startedAtMs = System.currentTimeMillis();
+
+    public MemoryHealthIndicator(
+            @Value("${app.health.memory.window-seconds:60}") long windowSeconds,
+            @Value("${app.health.memory.gc-overhead-warning:0.10}") double gcOverheadWarning,
+            @Value("${app.health.memory.gc-overhead-down:0.25}") double gcOverheadDown,
+            @Value("${app.health.memory.old-gen-warning:0.85}") double oldGenWarning,
+            @Value("${app.health.memory.old-gen-down:0.95}") double oldGenDown) {
+        this.windowMs = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.gcOverheadWarning = gcOverheadWarning;
+        this.gcOverheadDown = gcOverheadDown;
+        this.oldGenWarning = oldGenWarning;
+        this.oldGenDown = oldGenDown;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            heapPools.add(pool.getName());
+            String name = pool.getName();
+            if (pool.isCollectionUsageThresholdSupported()
+                    && (name.contains("Old") || name.contains("Tenured"))) {
+                oldGenPools.add(pool);
+            }
+        }
+    }
+
+    @PostConstruct
+    void registerGcListeners() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    @PreDestroy
+    void unregisterGcListeners() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // Đã gỡ
+            }
+        }
+    }
+
+    /**
+     * Chạy trên thread notification của JVM: chỉ cập nhật cửa sổ, không làm việc nặng.
+     */
+    private void onGarbageCollection(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // Collector chạy song song với app (G1 Concurrent, ZGC Cycles...) không phải pause
+        String gcName = info.getGcName();
+        if (gcName.contains("Concurrent") || gcName.contains("Cycles")) {
+            return;
+        }
+
+        GcInfo gcInfo = info.getGcInfo();
+        long heapBefore = heapUsed(gcInfo.getMemoryUsageBeforeGc());
+        long heapAfter = heapUsed(gcInfo.getMemoryUsageAfterGc());
+
+        synchronized (this) {
+            long allocated = heapAfterLastGc < 0 ? 0 : Math.max(0, heapBefore - heapAfterLastGc);
+            heapAfterLastGc = heapAfter;
+            window.addLast(new GcEvent(System.currentTimeMillis(), gcInfo.getDuration(), allocated));
+            prune(System.currentTimeMillis());
+        }
+    }
+
+    private long heapUsed(Map<String, MemoryUsage> usageByPool) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> entry : usageByPool.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private void prune(long now) {
+        while (!window.isEmpty() && now - window.peekFirst().endedAtMs() > windowMs) {
+            window.removeFirst();
+        }
+    }
+
     @Override
     public Health health() {
-        Runtime runtime = Runtime.getRuntime();
-        
-        long maxMemory = runtime.maxMemory();
-        long totalMemory = runtime.totalMemory();
-        long freeMemory = runtime.freeMemory();
-        long usedMemory = totalMemory - freeMemory;
-        double usedPercentage = (double) usedMemory / maxMemory;
-        
+        long now = System.currentTimeMillis();
+        long gcCount;
+        long pauseMs = 0;
+        long allocatedBytes = 0;
+        synchronized (this) {
+            prune(now);
+            gcCount = window.size();
+            for (GcEvent event : window) {
+                pauseMs += event.pauseMs();
+                allocatedBytes += event.allocatedBytes();
+            }
+        }
+
+        // Luôn chia cho cả cửa sổ, kể cả lúc mới khởi động: chia cho vài trăm ms
+        // đã chạy thì 1 lần GC 50ms thành overhead 25% → DOWN trong lúc warm-up
+        boolean warmingUp = now - startedAtMs < windowMs;
+        double gcOverhead = (double) pauseMs / windowMs;
+        double allocationRate = allocatedBytes * 1000.0 / windowMs;
+        double oldGenAfterGc = oldGenOccupancyAfterGc();
+
         Health.Builder builder;
-        
-        if (usedPercentage >= CRITICAL_THRESHOLD) {
+        if (gcOverhead >= gcOverheadDown
+                || (oldGenAfterGc >= oldGenDown && gcOverhead >= gcOverheadWarning)) {
             builder = Health.down()
-                .withDetail("error", "Memory usage critical!");
-        } else if (usedPercentage >= WARNING_THRESHOLD) {
+                .withDetail("error", "Sustained GC pressure");
+        } else if (gcOverhead >= gcOverheadWarning || oldGenAfterGc >= oldGenWarning) {
             builder = Health.status("WARNING")
-                .withDetail("warning", "Memory usage high");
+                .withDetail("warning", "GC pressure high");
         } else {
             builder = Health.up();
         }
-        
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
         return builder
-            .withDetail("maxMemory", formatBytes(maxMemory))
-            .withDetail("totalMemory", formatBytes(totalMemory))
-            .withDetail("freeMemory", formatBytes(freeMemory))
-            .withDetail("usedMemory", formatBytes(usedMemory))
-            .withDetail("usedPercentage", String.format("%.2f%%", usedPercentage * 100))
-            .withDetail("availableProcessors", runtime.availableProcessors())
+            .withDetail("window", TimeUnit.MILLISECONDS.toSeconds(windowMs) + "s")
+            .withDetail("warmingUp", warmingUp)
+            .withDetail("gcCount", gcCount)
+            .withDetail("gcPauseTotal", pauseMs + "ms")
+            .withDetail("gcOverhead", String.format("%.2f%%", gcOverhead * 100))
+            .withDetail("allocationRate", formatBytes((long) allocationRate) + "/s")
+            .withDetail("oldGenAfterGc", oldGenAfterGc < 0 ? "n/a" : String.format("%.2f%%", oldGenAfterGc * 100))
+            .withDetail("heapUsed", formatBytes(heap.getUsed()))
+            .withDetail("heapMax", formatBytes(heap.getMax()))
             .build();
     }
-    
+
+    /**
+     * Tỉ lệ chiếm dụng old gen ngay sau lần GC gần nhất, -1 nếu không xác định được
+     */
+    private double oldGenOccupancyAfterGc() {
+        long used = 0;
+        long max = 0;
+        for (MemoryPoolMXBean pool : oldGenPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null || usage.getMax() <= 0) {
+                continue;
+            }
+            used += usage.getUsed();
+            max += usage.getMax();
+        }
+        return max == 0 ? -1 : (double) used / max;
+    }
+
     private String formatBytes(long bytes) {
         return String.format("%.2f MB", bytes / (1024.0 * 1024));
     }
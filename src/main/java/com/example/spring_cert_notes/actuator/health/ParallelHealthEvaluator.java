@@ -0,0 +1,150 @@
+package com.example.spring_cert_notes.actuator.health;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * BÀI 1F: ĐÁNH GIÁ HEALTH SONG SONG, CÓ DEADLINE
+ *
+ * HealthEndpoint gọi từng indicator tuần tự → latency = tổng latency.
+ * Evaluator này chạy theo "round":
+ * - Indicator đầu tiên được hỏi mở round mới: submit TẤT CẢ indicators lên executor
+ * - Mỗi indicator chỉ chờ kết quả của mình tới deadline của round
+ *   → tổng latency ≈ max(latency, timeout) thay vì tổng
+ * - Quá deadline → UNKNOWN kèm trạng thái lần cuối (lastKnown)
+ * - Indicator còn đang chạy (treo) không bị submit lại, nên 1 dependency
+ *   chậm chiếm tối đa 1 thread
+ * - Executor do ParallelHealthPostProcessor tạo và sở hữu: virtual threads khi
+ *   spring.threads.virtual.enabled=true (Java 21+), ngược lại pool platform threads
+ *
+ * Metrics:
+ * - health.indicator.evaluation{indicator, outcome=completed|error}: thời gian thật
+ * - health.indicator.timeouts{indicator}: số lần quá deadline
+ */
+class ParallelHealthEvaluator {
+
+    private record Round(long startedAt, long deadline, Map<String, CompletableFuture<Health>> results) {}
+
+    private record TimerKey(String indicator, String outcome) {}
+
+    private final long timeoutNanos;
+    private final Executor executor;
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final Map<String, HealthIndicator> indicators = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Health>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Health> lastKnown = new ConcurrentHashMap<>();
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> timeouts = new ConcurrentHashMap<>();
+    private volatile Round round;
+
+    ParallelHealthEvaluator(Executor executor, long timeoutMs, Supplier<MeterRegistry> meterRegistry) {
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    void register(String name, HealthIndicator indicator) {
+        indicators.put(name, indicator);
+    }
+
+    Health evaluate(String name) {
+        Round current = currentRound();
+        CompletableFuture<Health> result = current.results().get(name);
+        if (result == null) {
+            result = submit(name);  // Đăng ký sau khi round bắt đầu
+        }
+
+        long remaining = current.deadline() - System.nanoTime();
+        try {
+            return result.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return timedOut(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return timedOut(name);
+        } catch (ExecutionException e) {
+            return Health.down().withDetail("error", String.valueOf(e.getCause())).build();
+        }
+    }
+
+    private Round currentRound() {
+        Round current = round;
+        long now = System.nanoTime();
+        if (current != null && now - current.startedAt() < timeoutNanos) {
+            return current;
+        }
+        synchronized (this) {
+            current = round;
+            if (current != null && now - current.startedAt() < timeoutNanos) {
+                return current;
+            }
+            Map<String, CompletableFuture<Health>> results = new LinkedHashMap<>();
+            for (String name : indicators.keySet()) {
+                results.put(name, submit(name));
+            }
+            current = new Round(now, now + timeoutNanos, results);
+            round = current;
+            return current;
+        }
+    }
+
+    private CompletableFuture<Health> submit(String name) {
+        return inFlight.compute(name, (key, running) -> running != null && !running.isDone()
+            ? running
+            : CompletableFuture.supplyAsync(() -> timedHealth(key), executor));
+    }
+
+    private Health timedHealth(String name) {
+        long start = System.nanoTime();
+        Health health;
+        String outcome;
+        try {
+            health = indicators.get(name).health();
+            outcome = "completed";
+        } catch (RuntimeException e) {
+            health = Health.down(e).build();
+            outcome = "error";
+        }
+        timer(name, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        lastKnown.put(name, health);
+        return health;
+    }
+
+    private Health timedOut(String name) {
+        timeouts.computeIfAbsent(name, key -> Counter.builder("health.indicator.timeouts")
+            .description("Health checks that missed the evaluation deadline")
+            .tag("indicator", key)
+            .register(meterRegistry.get())).increment();
+
+        Health.Builder builder = Health.unknown()
+            .withDetail("error", "Health check exceeded " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        Health last = lastKnown.get(name);
+        if (last != null) {
+            builder.withDetail("lastKnownStatus", last.getStatus().getCode())
+                .withDetail("lastKnown", last.getDetails());
+        }
+        return builder.build();
+    }
+
+    private Timer timer(String name, String outcome) {
+        return timers.computeIfAbsent(new TimerKey(name, outcome), key -> Timer.builder("health.indicator.evaluation")
+            .description("Health indicator evaluation time")
+            .tag("indicator", key.indicator())
+            .tag("outcome", key.outcome())
+            .register(meterRegistry.get()));
+    }
+}
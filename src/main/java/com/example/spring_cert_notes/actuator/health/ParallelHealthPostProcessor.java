@@ -0,0 +1,172 @@
+package com.example.spring_cert_notes.actuator.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.NamedContributor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bọc các health contributors trong package này để /actuator/health đánh giá
+ * chúng song song qua ParallelHealthEvaluator.
+ *
+ * - HealthIndicator → TimeBoxedIndicator (tên = tên bean)
+ * - CompositeHealthContributor → TimeBoxedComposite, từng child được bọc
+ *   (tên = "bean/child"), nên child cũng chạy song song
+ *
+ * Bean bị thay bằng wrapper, nên @PreDestroy của bean gốc được gọi lại qua
+ * postProcessBeforeDestruction.
+ *
+ * Executor theo spring.threads.virtual.enabled (profile "virtual", Java 21+):
+ * - Bật → SimpleAsyncTaskExecutor với virtual threads, mỗi check 1 virtual thread
+ * - Tắt → pool cố định app.health.parallel.threads platform threads
+ *
+ * Tắt bằng app.health.parallel.enabled=false.
+ */
+@Component
+public class ParallelHealthPostProcessor implements DestructionAwareBeanPostProcessor,
+        BeanFactoryAware, EnvironmentAware, DisposableBean {
+
+    private static final String HEALTH_PACKAGE = ParallelHealthPostProcessor.class.getPackageName();
+
+    private BeanFactory beanFactory;
+    private Executor executor;
+    private ParallelHealthEvaluator evaluator;
+    private boolean enabled;
+
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.enabled = environment.getProperty("app.health.parallel.enabled", Boolean.class, true);
+        int threads = environment.getProperty("app.health.parallel.threads", Integer.class, 4);
+        long timeoutMs = environment.getProperty("app.health.parallel.timeout-ms", Long.class, 2000L);
+        this.executor = createExecutor(environment, threads);
+        // MeterRegistry lấy lazy: BeanPostProcessor được tạo trước, không inject trực tiếp
+        this.evaluator = new ParallelHealthEvaluator(executor, timeoutMs, this::meterRegistry);
+    }
+
+    private static Executor createExecutor(Environment environment, int threads) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("health-eval-");
+            virtual.setVirtualThreads(true);
+            return virtual;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "health-eval-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!enabled || !bean.getClass().getPackageName().equals(HEALTH_PACKAGE)) {
+            return bean;
+        }
+        if (bean instanceof HealthIndicator indicator) {
+            evaluator.register(beanName, indicator);
+            return new TimeBoxedIndicator(beanName, bean, evaluator);
+        }
+        if (bean instanceof CompositeHealthContributor composite) {
+            Map<String, HealthContributor> children = new LinkedHashMap<>();
+            for (NamedContributor<HealthContributor> child : composite) {
+                String name = beanName + "/" + child.getName();
+                if (child.getContributor() instanceof HealthIndicator indicator) {
+                    evaluator.register(name, indicator);
+                    children.put(child.getName(), new TimeBoxedIndicator(name, indicator, evaluator));
+                } else {
+                    children.put(child.getName(), child.getContributor());
+                }
+            }
+            return new TimeBoxedComposite(bean, children);
+        }
+        return bean;
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof Wrapper;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        if (bean instanceof Wrapper wrapper && beanFactory instanceof AutowireCapableBeanFactory factory) {
+            factory.destroyBean(wrapper.target());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+
+    private MeterRegistry meterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfAvailable(SimpleMeterRegistry::new);
+            meterRegistry = registry;
+        }
+        return registry;
+    }
+
+    private interface Wrapper {
+        Object target();
+    }
+
+    private record TimeBoxedIndicator(String name, Object target, ParallelHealthEvaluator evaluator)
+            implements HealthIndicator, Wrapper {
+
+        @Override
+        public Health health() {
+            return evaluator.evaluate(name);
+        }
+    }
+
+    private record TimeBoxedComposite(Object target, Map<String, HealthContributor> children)
+            implements CompositeHealthContributor, Wrapper {
+
+        @Override
+        public HealthContributor getContributor(String name) {
+            return children.get(name);
+        }
+
+        @Override
+        public Iterator<NamedContributor<HealthContributor>> iterator() {
+            return children.entrySet().stream()
+                .map(entry -> NamedContributor.of(entry.getKey(), entry.getValue()))
+                .iterator();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.spring_cert_notes.actuator.metrics;
 
 import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * BÀI 2: CUSTOM METRICS VỚI MICROMETER
@@ -24,6 +31,7 @@ public class BusinessMetrics {
     
     // Counters
     private final Counter userLoginCounter;
+    private final Map<String, Counter> loginMethodCounters = new ConcurrentHashMap<>();
     private final Counter userRegistrationCounter;
     private final Counter orderCounter;
     private final Counter errorCounter;
@@ -39,7 +47,22 @@ public class BusinessMetrics {
     // Distribution Summary
     private final DistributionSummary orderAmountSummary;
     
+    // Tần suất login theo user: sketch cố định bộ nhớ, chỉ top-K thành meters
+    private final HeavyHittersSketch loginFrequencies;
+    private final MultiGauge topLoginUsers;
+    
+    // Method result caches (@Cached), theo tên cache
+    private final Map<String, CacheMeters> cacheMeters = new ConcurrentHashMap<>();
+    
     public BusinessMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, 10, 2048, 4);
+    }
+    
+    @Autowired
+    public BusinessMetrics(MeterRegistry meterRegistry,
+                           @Value("${app.metrics.logins.top-k:10}") int loginTopK,
+                           @Value("${app.metrics.logins.sketch-width:2048}") int loginSketchWidth,
+                           @Value("${app.metrics.logins.sketch-depth:4}") int loginSketchDepth) {
         this.meterRegistry = meterRegistry;
         
         // ============================================================
@@ -99,6 +122,20 @@ public class BusinessMetrics {
             .baseUnit("dollars")
             .publishPercentiles(0.5, 0.75, 0.95, 0.99)
             .register(meterRegistry);
+        
+        // ============================================================
+        // 5. HEAVY HITTERS - Top-K users theo số lần login
+        // ============================================================
+        
+        this.loginFrequencies = new HeavyHittersSketch(loginSketchWidth, loginSketchDepth, loginTopK);
+        this.topLoginUsers = MultiGauge.builder("user.logins.top")
+            .description("Estimated logins of the top-K users (Count-Min Sketch)")
+            .register(meterRegistry);
+        loginFrequencies.onTopKChange(this::publishTopLoginUsers);
+        
+        Gauge.builder("user.logins.sketch.error.bound", loginFrequencies, HeavyHittersSketch::errorBound)
+            .description("Max overestimate of user.logins.top values")
+            .register(meterRegistry);
     }
     
     // ============================================================
@@ -107,25 +144,45 @@ public class BusinessMetrics {
     
     /**
      * Record user login
+     * 
+     * Không tag theo username (mỗi user 1 meter → registry phình không giới hạn).
+     * Tần suất theo user đi vào sketch, chỉ top-K được export (user.logins.top).
      */
     public void recordUserLogin(String username) {
         userLoginCounter.increment();
-        
-        // Counter với dynamic tags
-        meterRegistry.counter("user.logins.detailed", 
-            "username", username,
-            "method", "password"
-        ).increment();
+        recordUserLogin(username, "password");
     }
     
     /**
      * Record user login với method
      */
     public void recordUserLogin(String username, String loginMethod) {
-        meterRegistry.counter("user.logins.detailed",
-            "username", username,
-            "method", loginMethod
-        ).increment();
+        loginMethodCounters.computeIfAbsent(loginMethod, method ->
+            Counter.builder("user.logins.detailed")
+                .description("User logins by login method")
+                .tag("method", method)
+                .register(meterRegistry))
+            .increment();
+        
+        loginFrequencies.add(username);
+    }
+    
+    /**
+     * Sketch tần suất login (cho LoginFrequencyEndpoint)
+     */
+    public HeavyHittersSketch getLoginFrequencies() {
+        return loginFrequencies;
+    }
+    
+    private void publishTopLoginUsers() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (HeavyHittersSketch.Entry entry : loginFrequencies.topK()) {
+            String username = entry.key();
+            rows.add(MultiGauge.Row.of(Tags.of("username", username), loginFrequencies,
+                sketch -> sketch.estimate(username)));
+        }
+        // overwrite = true: user rớt khỏi top-K thì meter của user đó bị xóa
+        topLoginUsers.register(rows, true);
     }
     
     /**
@@ -229,4 +286,76 @@ public class BusinessMetrics {
     public void recordOrderAmount(double amount) {
         orderAmountSummary.record(amount);
     }
+    
+    // ============================================================
+    // CACHE METRICS - @Cached method caches
+    // ============================================================
+    
+    /**
+     * Đăng ký meters cho một method cache (gọi một lần khi cache được tạo).
+     * 
+     * - method.cache.gets{cache, result=hit|miss}
+     * - method.cache.hit.ratio{cache}
+     * - method.cache.evictions{cache, cause}
+     * - method.cache.size{cache}
+     */
+    public CacheMeters registerMethodCache(String cacheName) {
+        return cacheMeters.computeIfAbsent(cacheName, name -> new CacheMeters(name, meterRegistry));
+    }
+    
+    /**
+     * Counters của một cache, lấy sẵn để không phải lookup registry mỗi lần gọi.
+     */
+    public static final class CacheMeters {
+        
+        private final String cacheName;
+        private final MeterRegistry meterRegistry;
+        private final Counter hits;
+        private final Counter misses;
+        private final Map<String, Counter> evictions = new ConcurrentHashMap<>();
+        
+        private CacheMeters(String cacheName, MeterRegistry meterRegistry) {
+            this.cacheName = cacheName;
+            this.meterRegistry = meterRegistry;
+            this.hits = Counter.builder("method.cache.gets")
+                .description("Method cache lookups")
+                .tags("cache", cacheName, "result", "hit")
+                .register(meterRegistry);
+            this.misses = Counter.builder("method.cache.gets")
+                .description("Method cache lookups")
+                .tags("cache", cacheName, "result", "miss")
+                .register(meterRegistry);
+            Gauge.builder("method.cache.hit.ratio", this, CacheMeters::hitRatio)
+                .description("Hits / (hits + misses) since start")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        }
+        
+        public void recordHit() {
+            hits.increment();
+        }
+        
+        public void recordMiss() {
+            misses.increment();
+        }
+        
+        public void recordEviction(String cause) {
+            evictions.computeIfAbsent(cause, c -> Counter.builder("method.cache.evictions")
+                .description("Entries removed from the method cache")
+                .tags("cache", cacheName, "cause", c)
+                .register(meterRegistry)).increment();
+        }
+        
+        public void bindSize(Supplier<Number> size) {
+            Gauge.builder("method.cache.size", size)
+                .description("Entries in the method cache")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        }
+        
+        public double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0.0 : hits.count() / total;
+        }
+    }
 }
@@ -0,0 +1,204 @@
+package com.example.spring_cert_notes.actuator.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HEAVY HITTERS: COUNT-MIN SKETCH + TOP-K
+ *
+ * Đếm tần suất theo key (ví dụ username) với bộ nhớ cố định depth x width,
+ * không phụ thuộc số key khác nhau.
+ *
+ * - estimate(key) >= tần suất thật, sai số <= epsilon * total
+ *   (epsilon = e / width) với xác suất 1 - e^-depth
+ * - Top-K: giữ K key có estimate lớn nhất. Key chỉ vào lock khi estimate
+ *   vượt ngưỡng (estimate nhỏ nhất trong top-K), nên đa số add() không lock
+ * - Listener được gọi (trong lock) khi thành viên top-K thay đổi, để đồng bộ meters
+ */
+public final class HeavyHittersSketch {
+
+    public record Entry(String key, long estimate) {}
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final int k;
+    private final AtomicLongArray table;
+    private final LongAdder total = new LongAdder();
+
+    private final Set<String> topK = ConcurrentHashMap.newKeySet();
+    private final Object topKLock = new Object();
+    private volatile long admissionThreshold;
+    private volatile Runnable topKListener = () -> {};
+
+    /**
+     * @param width số cột mỗi hàng, làm tròn lên lũy thừa của 2
+     * @param depth số hàm hash (số hàng)
+     * @param k     số heavy hitters giữ lại
+     */
+    public HeavyHittersSketch(int width, int depth, int k) {
+        if (width < 1 || width > (1 << 24) || depth < 1 || k < 1) {
+            throw new IllegalArgumentException("width must be in [1, 2^24], depth and k must be positive");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.mask = this.width - 1;
+        this.depth = depth;
+        this.k = k;
+        this.table = new AtomicLongArray(this.depth * this.width);
+    }
+
+    /**
+     * Tăng tần suất của key, trả về estimate mới
+     */
+    public long add(String key) {
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, table.incrementAndGet(row * width + column));
+        }
+        total.increment();
+
+        if (estimate > admissionThreshold && !topK.contains(key)) {
+            offer(key, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Tần suất ước lượng của key (không bao giờ thấp hơn thật)
+     */
+    public long estimate(String key) {
+        int h1 = spread(key.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, table.get(row * width + column));
+        }
+        return estimate;
+    }
+
+    private void offer(String key, long estimate) {
+        synchronized (topKLock) {
+            if (topK.contains(key)) {
+                return;
+            }
+            if (topK.size() < k) {
+                topK.add(key);
+                topKListener.run();
+            } else {
+                String weakest = null;
+                long weakestEstimate = Long.MAX_VALUE;
+                for (String member : topK) {
+                    long memberEstimate = estimate(member);
+                    if (memberEstimate < weakestEstimate) {
+                        weakest = member;
+                        weakestEstimate = memberEstimate;
+                    }
+                }
+                if (estimate > weakestEstimate) {
+                    topK.remove(weakest);
+                    topK.add(key);
+                    topKListener.run();
+                }
+            }
+            if (topK.size() >= k) {
+                // Estimate của thành viên chỉ tăng, ngưỡng cũ (thấp hơn) chỉ làm
+                // thêm vài lần vào lock, không bỏ sót ứng viên
+                long threshold = Long.MAX_VALUE;
+                for (String member : topK) {
+                    threshold = Math.min(threshold, estimate(member));
+                }
+                admissionThreshold = threshold;
+            }
+        }
+    }
+
+    /**
+     * Top-K hiện tại, estimate lớn nhất trước
+     */
+    public List<Entry> topK() {
+        List<Entry> entries = new ArrayList<>(topK.size());
+        for (String member : topK) {
+            entries.add(new Entry(member, estimate(member)));
+        }
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed());
+        return entries;
+    }
+
+    public boolean isTopK(String key) {
+        return topK.contains(key);
+    }
+
+    public void onTopKChange(Runnable listener) {
+        this.topKListener = listener;
+    }
+
+    /**
+     * Xóa toàn bộ sketch. add() chạy song song có thể để lại vài count lẻ.
+     */
+    public void reset() {
+        synchronized (topKLock) {
+            for (int i = 0; i < table.length(); i++) {
+                table.set(i, 0);
+            }
+            total.reset();
+            topK.clear();
+            admissionThreshold = 0;
+            topKListener.run();
+        }
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * epsilon = e / width: sai số tương đối so với total
+     */
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    /**
+     * Xác suất estimate nằm trong sai số: 1 - e^-depth
+     */
+    public double confidence() {
+        return 1.0 - Math.exp(-depth);
+    }
+
+    /**
+     * Sai số tuyệt đối tối đa (theo confidence) của mỗi estimate
+     */
+    public long errorBound() {
+        return (long) Math.ceil(epsilon() * total());
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -1,47 +1,112 @@
 package com.example.spring_cert_notes.actuator.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * BÀI 2B: HTTP REQUEST METRICS
  * 
- * Custom metrics cho HTTP requests.
+ * Custom metrics cho HTTP requests (ghi bởi HttpMetricsFilter).
+ * 
+ * - Meters được cache theo (method, route template, status): mỗi tổ hợp
+ *   chỉ register 1 lần, các request sau chỉ increment/record
+ * - Tag "uri" là route template (/api/users/{id}), không phải URI thô;
+ *   request không khớp handler nào dùng bucket cố định như http.server.requests
+ *   (NOT_FOUND, REDIRECTION, UNKNOWN) và không tính vào giới hạn
+ * - Tối đa max-uris route templates khác nhau, vượt quá → "OVERFLOW"
+ * - Timer publish histogram, percentiles và SLO buckets giống http.server.requests
+ *   trong application-actuator.properties
  */
 @Component
 public class HttpMetrics {
     
+    static final String OVERFLOW_URI = "OVERFLOW";
+    static final String NOT_FOUND_URI = "NOT_FOUND";
+    static final String REDIRECTION_URI = "REDIRECTION";
+    static final String UNKNOWN_URI = "UNKNOWN";
+    
+    private static final Set<String> FIXED_URIS = Set.of(NOT_FOUND_URI, REDIRECTION_URI, UNKNOWN_URI);
+    
+    private static final Set<String> KNOWN_METHODS =
+        Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+    
+    private record CounterKey(String method, String uri, int status) {}
+    private record TimerKey(String method, String uri) {}
+    
     private final MeterRegistry meterRegistry;
+    private final int maxUris;
+    private final Duration[] slos;
+    private final double[] percentiles;
     
-    public HttpMetrics(MeterRegistry meterRegistry) {
+    private final Set<String> admittedUris = ConcurrentHashMap.newKeySet();
+    private final Map<CounterKey, Counter> requestCounters = new ConcurrentHashMap<>();
+    private final Map<TimerKey, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> slowCounters = new ConcurrentHashMap<>();
+    private final AtomicLong lastSlowDurationMs = new AtomicLong();
+    
+    public HttpMetrics(MeterRegistry meterRegistry,
+                       @Value("${app.metrics.http.max-uris:100}") int maxUris,
+                       @Value("${management.metrics.distribution.slo.http.server.requests:50ms,100ms,200ms,500ms}")
+                       Duration[] slos,
+                       @Value("${management.metrics.distribution.percentiles.http.server.requests:0.5,0.75,0.95,0.99}")
+                       double[] percentiles) {
         this.meterRegistry = meterRegistry;
+        this.maxUris = maxUris;
+        this.slos = slos;
+        this.percentiles = percentiles;
+        
+        Gauge.builder("http.requests.slow.duration", lastSlowDurationMs, AtomicLong::get)
+            .description("Duration of the most recent slow request")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
     }
     
     /**
      * Record HTTP request
+     * 
+     * @param uri route template, hoặc 1 bucket cố định (xem unmatchedUri) khi không có handler
      */
     public void recordRequest(String method, String uri, int statusCode, long durationMs) {
+        recordRequest(method, uri, statusCode, TimeUnit.MILLISECONDS.toNanos(durationMs), TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordRequest(String method, String uri, int statusCode, long duration, TimeUnit unit) {
+        String methodTag = KNOWN_METHODS.contains(method) ? method : "OTHER";
+        String uriTag = admit(uri);
+        
         // Counter cho requests
-        Counter.builder("http.requests.total")
-            .description("Total HTTP requests")
-            .tag("method", method)
-            .tag("uri", uri)
-            .tag("status", String.valueOf(statusCode))
-            .tag("outcome", getOutcome(statusCode))
-            .register(meterRegistry)
+        requestCounters.computeIfAbsent(new CounterKey(methodTag, uriTag, statusCode), key ->
+            Counter.builder("http.requests.total")
+                .description("Total HTTP requests")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .tag("status", String.valueOf(key.status()))
+                .tag("outcome", getOutcome(key.status()))
+                .register(meterRegistry))
             .increment();
         
         // Timer cho response time
-        Timer.builder("http.requests.duration")
-            .description("HTTP request duration")
-            .tag("method", method)
-            .tag("uri", uri)
-            .register(meterRegistry)
-            .record(durationMs, TimeUnit.MILLISECONDS);
+        requestTimers.computeIfAbsent(new TimerKey(methodTag, uriTag), key ->
+            Timer.builder("http.requests.duration")
+                .description("HTTP request duration")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .publishPercentileHistogram()
+                .publishPercentiles(percentiles)
+                .serviceLevelObjectives(slos)
+                .register(meterRegistry))
+            .record(duration, unit);
     }
     
     /**
@@ -59,11 +124,45 @@ public class HttpMetrics {
      * Record slow request
      */
     public void recordSlowRequest(String uri, long durationMs) {
-        meterRegistry.counter("http.requests.slow",
-            "uri", uri
-        ).increment();
+        slowCounters.computeIfAbsent(admit(uri), key ->
+            Counter.builder("http.requests.slow")
+                .tag("uri", key)
+                .register(meterRegistry))
+            .increment();
         
-        meterRegistry.gauge("http.requests.slow.duration", durationMs);
+        lastSlowDurationMs.set(durationMs);
+    }
+    
+    /**
+     * Bucket cho request không khớp route template nào (404, scanner, static...),
+     * giống cách http.server.requests của Spring Boot gắn tag
+     */
+    static String unmatchedUri(int statusCode) {
+        if (statusCode == 404) {
+            return NOT_FOUND_URI;
+        }
+        if (statusCode >= 300 && statusCode < 400) {
+            return REDIRECTION_URI;
+        }
+        return UNKNOWN_URI;
+    }
+    
+    /**
+     * Áp giới hạn số giá trị tag: chỉ route templates chiếm chỗ trong max-uris
+     */
+    String admit(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            return UNKNOWN_URI;
+        }
+        if (FIXED_URIS.contains(uri) || admittedUris.contains(uri)) {
+            return uri;
+        }
+        if (admittedUris.size() >= maxUris) {
+            return OVERFLOW_URI;
+        }
+        // Có thể vượt maxUris một chút khi nhiều thread cùng admit - chấp nhận được
+        admittedUris.add(uri);
+        return uri;
     }
     
     private String getOutcome(int statusCode) {
@@ -0,0 +1,61 @@
+package com.example.spring_cert_notes.actuator.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BÀI 2C: SERVLET FILTER GHI HTTP METRICS
+ * 
+ * Đo mọi request và ghi vào HttpMetrics. Route template lấy từ
+ * HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE (Spring MVC set sau khi
+ * chọn handler), nên tag uri là /api/users/{id} chứ không phải /api/users/42.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class HttpMetricsFilter extends OncePerRequestFilter {
+    
+    private final HttpMetrics httpMetrics;
+    private final long slowThresholdMs;
+    
+    public HttpMetricsFilter(HttpMetrics httpMetrics,
+                             @Value("${app.metrics.http.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.httpMetrics = httpMetrics;
+        this.slowThresholdMs = slowThresholdMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            int status = response.getStatus();
+            String uri = routeTemplate(request, status);
+            httpMetrics.recordRequest(request.getMethod(), uri, status, elapsed, TimeUnit.NANOSECONDS);
+            
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            if (elapsedMs >= slowThresholdMs) {
+                httpMetrics.recordSlowRequest(uri, elapsedMs);
+            }
+        }
+    }
+    
+    private static String routeTemplate(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        // Không có handler (404, scanner, static resource...) → bucket cố định, không dùng URI thô
+        return pattern != null ? pattern.toString() : HttpMetrics.unmatchedUri(status);
+    }
+}
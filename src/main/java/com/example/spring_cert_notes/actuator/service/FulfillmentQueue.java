@@ -0,0 +1,147 @@
+package com.example.spring_cert_notes.actuator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hàng đợi công việc bounded (fulfillment sau khi tạo order) với consumer threads.
+ *
+ * - offer() không block: hàng đợi đầy → job bị từ chối (rejected)
+ * - Mỗi job nhớ thời điểm enqueue → consumer lag = tuổi của job cũ nhất
+ * - snapshot(): depth, counters, rate enqueue/dequeue (giữa 2 lần snapshot), lag,
+ *   thời gian từ lần reject gần nhất (không phụ thuộc ai gọi snapshot, gọi bao nhiêu lần)
+ *
+ * CompositeHealthIndicator ("infrastructure/messageQueue") đánh giá health từ snapshot.
+ * Metrics: fulfillment.queue.depth, fulfillment.queue.{enqueued,dequeued,rejected}
+ */
+@Component
+public class FulfillmentQueue {
+
+    private record Job(Runnable task, long enqueuedAt) {}
+
+    public record Snapshot(int depth, int capacity, int consumers,
+                           long enqueued, long dequeued, long rejected,
+                           double enqueueRate, double dequeueRate, long consumerLagMs,
+                           long lastRejectedAgoMs) {}  // -1: chưa từng reject
+
+    private final BlockingQueue<Job> queue;
+    private final int capacity;
+    private final int consumerCount;
+    private final List<Thread> consumers = new ArrayList<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lastRejectedAt;
+
+    // Mốc cho tính rate, chỉ đổi trong snapshot()
+    private long lastSampleNanos = System.nanoTime();
+    private long lastEnqueued;
+    private long lastDequeued;
+    private double enqueueRate;
+    private double dequeueRate;
+
+    private volatile boolean running = true;
+
+    public FulfillmentQueue(MeterRegistry meterRegistry,
+                            @Value("${app.queue.fulfillment.capacity:1000}") int capacity,
+                            @Value("${app.queue.fulfillment.consumers:2}") int consumerCount) {
+        this.capacity = capacity;
+        this.consumerCount = consumerCount;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("fulfillment.queue.depth", queue, BlockingQueue::size)
+            .description("Jobs waiting in the fulfillment queue")
+            .register(meterRegistry);
+        FunctionCounter.builder("fulfillment.queue.enqueued", enqueued, LongAdder::sum)
+            .register(meterRegistry);
+        FunctionCounter.builder("fulfillment.queue.dequeued", dequeued, LongAdder::sum)
+            .register(meterRegistry);
+        FunctionCounter.builder("fulfillment.queue.rejected", rejected, LongAdder::sum)
+            .description("Jobs rejected because the queue was full")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startConsumers() {
+        for (int i = 1; i <= consumerCount; i++) {
+            Thread thread = new Thread(this::consume, "fulfillment-worker-" + i);
+            thread.setDaemon(true);
+            consumers.add(thread);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    void stopConsumers() {
+        running = false;
+        consumers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * @return false nếu hàng đợi đầy (job bị từ chối)
+     */
+    public boolean offer(Runnable task) {
+        if (queue.offer(new Job(task, System.nanoTime()))) {
+            enqueued.increment();
+            return true;
+        }
+        lastRejectedAt = System.nanoTime();
+        rejected.increment();
+        return false;
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                Job job = queue.poll(1, TimeUnit.SECONDS);
+                if (job == null) {
+                    continue;
+                }
+                dequeued.increment();
+                job.task().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Job lỗi không được làm chết consumer thread
+            }
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        long now = System.nanoTime();
+        long enqueuedNow = enqueued.sum();
+        long dequeuedNow = dequeued.sum();
+
+        double elapsedSeconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        if (elapsedSeconds >= 1.0) {
+            enqueueRate = (enqueuedNow - lastEnqueued) / elapsedSeconds;
+            dequeueRate = (dequeuedNow - lastDequeued) / elapsedSeconds;
+            lastSampleNanos = now;
+            lastEnqueued = enqueuedNow;
+            lastDequeued = dequeuedNow;
+        }
+
+        Job oldest = queue.peek();
+        long lagMs = oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest.enqueuedAt());
+        long rejectedNow = rejected.sum();
+        long lastRejectedAgoMs = rejectedNow == 0 ? -1 : Math.max(0, TimeUnit.NANOSECONDS.toMillis(now - lastRejectedAt));
+
+        return new Snapshot(queue.size(), capacity, consumerCount,
+            enqueuedNow, dequeuedNow, rejectedNow,
+            enqueueRate, dequeueRate, lagMs, lastRejectedAgoMs);
+    }
+}
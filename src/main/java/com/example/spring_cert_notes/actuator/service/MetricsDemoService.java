@@ -14,10 +14,16 @@ import java.util.Random;
 public class MetricsDemoService {
     
     private final BusinessMetrics businessMetrics;
+    private final UserProfileCache profileCache;
+    private final FulfillmentQueue fulfillmentQueue;
     private final Random random = new Random();
     
-    public MetricsDemoService(BusinessMetrics businessMetrics) {
+    public MetricsDemoService(BusinessMetrics businessMetrics,
+                              UserProfileCache profileCache,
+                              FulfillmentQueue fulfillmentQueue) {
         this.businessMetrics = businessMetrics;
+        this.profileCache = profileCache;
+        this.fulfillmentQueue = fulfillmentQueue;
     }
     
     /**
@@ -27,6 +33,7 @@ public class MetricsDemoService {
     public void login(String username) {
         // Simulate login process
         simulateDelay(100, 500);
+        profileCache.get(username);
         
         // Record metrics
         businessMetrics.recordUserLogin(username);
@@ -68,6 +75,11 @@ public class MetricsDemoService {
             businessMetrics.recordOrderAmount(amount);
             businessMetrics.orderCreated();
             
+            // Fulfillment chạy bất đồng bộ trên hàng đợi bounded
+            if (!fulfillmentQueue.offer(() -> simulateDelay(50, 200))) {
+                businessMetrics.recordError("FulfillmentQueueFull", "MetricsDemoService");
+            }
+            
             System.out.println("Order created: " + productType + " - $" + amount);
         } finally {
             businessMetrics.stopTimer(sample, "order.creation.time");
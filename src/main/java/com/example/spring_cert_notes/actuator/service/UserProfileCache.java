@@ -0,0 +1,82 @@
+package com.example.spring_cert_notes.actuator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process cache profile của user (dùng bởi MetricsDemoService.login).
+ *
+ * Caffeine với recordStats(): hit/miss/eviction là số liệu thật, được
+ * CompositeHealthIndicator ("infrastructure/cache") đọc để đánh giá health.
+ * evictionCount() của Caffeine gộp cả entry hết hạn (expireAfterAccess), nên
+ * eviction do cache quá nhỏ (RemovalCause.SIZE) được đếm riêng qua evictionListener.
+ * Metrics: cache.gets{cache=userProfiles,result=hit|miss}, cache.evictions, cache.size
+ */
+@Component
+public class UserProfileCache {
+
+    static final String CACHE_NAME = "userProfiles";
+
+    public record UserProfile(String username, Instant loadedAt) {}
+
+    private final Cache<String, UserProfile> cache;
+    private final long maximumSize;
+    private final LongAdder sizeEvictions = new LongAdder();
+
+    public UserProfileCache(MeterRegistry meterRegistry,
+                            @Value("${app.cache.user-profiles.max-size:1000}") long maximumSize,
+                            @Value("${app.cache.user-profiles.ttl-seconds:600}") long ttlSeconds) {
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+            .evictionListener((String key, UserProfile value, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE) {
+                    sizeEvictions.increment();
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public UserProfile get(String username) {
+        return cache.get(username, name -> new UserProfile(name, Instant.now()));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Thống kê cộng dồn từ lúc khởi động
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Số entry bị đẩy ra vì vượt maximumSize (không tính hết hạn), cộng dồn từ lúc khởi động
+     */
+    public long sizeEvictionCount() {
+        return sizeEvictions.sum();
+    }
+    
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public long maximumSize() {
+        return maximumSize;
+    }
+}
@@ -4,6 +4,9 @@ import com.example.spring_cert_notes.Prefixes;
 import com.example.spring_cert_notes.aop.service.OrderService;
 import com.example.spring_cert_notes.aop.service.PaymentService;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 /**
  * DEMO: Aspect Oriented Programming
@@ -21,12 +24,17 @@ public class AopDemo {
         OrderService orderService = context.getBean(OrderService.class);
         PaymentService paymentService = context.getBean(PaymentService.class);
         
+        // SecurityAspect reads the caller from the SecurityContext
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+            "john.doe", null, AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+        
         demo5AdviceTypes(orderService);
         demoSecurityAspect(orderService);
         demoAuditAspect(orderService, paymentService);
         demoRetryAspect(orderService);
         demoExceptionHandling(orderService);
         
+        SecurityContextHolder.clearContext();
         context.close();
         System.out.println("\n✓ Demo completed!");
     }
@@ -63,6 +71,10 @@ public class AopDemo {
         System.out.println("=".repeat(60));
         
         orderService.processPayment("ORD-001");
+        
+        // Returns at once; retries run on the retry scheduler
+        String receipt = orderService.processPaymentAsync("ORD-002").join();
+        System.out.println(Prefixes.CORE_BEAN + "Async payment result: " + receipt);
     }
     
     private static void demoExceptionHandling(OrderService orderService) {
@@ -1,29 +1,55 @@
 package com.example.spring_cert_notes.aop;
 
-import com.example.spring_cert_notes.Prefixes;
+import com.example.spring_cert_notes.aop.audit.AuditArgs;
+import com.example.spring_cert_notes.aop.audit.AuditDispatcher;
+import com.example.spring_cert_notes.aop.audit.AuditEvent;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ASPECT 3: AUDIT ASPECT
  * 
  * Logs audit trail for methods annotated with @Auditable
- * Records: who, what, when, result
+ * Records: who (SecurityContext), what, when, result
+ * 
+ * On the caller thread the advice only builds a small immutable AuditEvent
+ * (bounded argument/result rendering) and offers it to AuditDispatcher;
+ * writing to the sinks (memory ring buffer, audit_log, rolling file)
+ * happens on the dispatcher thread.
  */
 @Aspect
 @Component
 @Order(2)
 public class AuditAspect {
     
-    // Simulated current user (in real app, get from SecurityContext)
-    private static final String CURRENT_USER = "john.doe";
+    private static final String ANONYMOUS = "anonymous";
+    
+    private record AuditTarget(String action, String method) {}
+    
+    private final AuditDispatcher dispatcher;
+    private final Map<Method, AuditTarget> targets = new ConcurrentHashMap<>();
+    
+    @Value("${aop.audit.max-value-length:64}")
+    private int maxValueLength;
+    
+    @Value("${aop.audit.max-args-length:256}")
+    private int maxArgsLength;
+    
+    public AuditAspect(AuditDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
     
     // ============================================================
     // POINTCUT: Methods annotated with @Auditable
@@ -36,19 +62,22 @@ public class AuditAspect {
     // ============================================================
     @AfterReturning(pointcut = "auditableMethod(auditable)", returning = "result")
     public void audit(JoinPoint joinPoint, Auditable auditable, Object result) {
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        Object[] args = joinPoint.getArgs();
-        String action = auditable.action().isEmpty() ? methodName : auditable.action();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AuditTarget target = targets.computeIfAbsent(method, m -> new AuditTarget(
+            auditable.action().isEmpty() ? m.getName() : auditable.action(),
+            m.getDeclaringClass().getSimpleName() + "." + m.getName()));
         
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] ================================");
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Timestamp: " + LocalDateTime.now());
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] User: " + CURRENT_USER);
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Action: " + action);
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Class: " + className);
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Method: " + methodName);
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Args: " + Arrays.toString(args));
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] Result: " + result);
-        System.out.println(Prefixes.CORE_AOP + "[AUDIT] ================================");
+        dispatcher.submit(new AuditEvent(
+            System.currentTimeMillis(),
+            currentPrincipal(),
+            target.action(),
+            target.method(),
+            AuditArgs.render(joinPoint.getArgs(), maxValueLength, maxArgsLength),
+            AuditArgs.render(result, maxValueLength)));
+    }
+    
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : ANONYMOUS;
     }
 }
@@ -0,0 +1,21 @@
+package com.example.spring_cert_notes.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation for concurrency limiting
+ * At most maxConcurrent calls run at once; others wait up to maxWait,
+ * then fail with BulkheadFullException
+ * 
+ * Methods sharing a name share one limit (default name: Class.method).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    String name() default "";
+    int maxConcurrent() default 10;
+    long maxWait() default 0; // milliseconds, 0 = reject immediately
+}
@@ -0,0 +1,87 @@
+package com.example.spring_cert_notes.aop;
+
+import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ASPECT 7: BULKHEAD ASPECT
+ * 
+ * Innermost resilience aspect: a permit is held only while the method runs
+ * (or, for CompletableFuture methods, until the future completes).
+ */
+@Aspect
+@Component
+@Order(6)
+public class BulkheadAspect {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkheadAspect.class);
+    
+    private record Binding(SemaphoreBulkhead bulkhead, Counter rejected) {}
+    
+    private final ResilienceRegistry registry;
+    private final Map<Method, Binding> bindings = new ConcurrentHashMap<>();
+    
+    public BulkheadAspect(ResilienceRegistry registry) {
+        this.registry = registry;
+    }
+    
+    // ============================================================
+    // POINTCUT: Methods annotated with @Bulkhead
+    // ============================================================
+    @Pointcut("@annotation(bulkhead)")
+    public void limitedMethod(Bulkhead bulkhead) {}
+    
+    // ============================================================
+    // BULKHEAD ADVICE
+    // ============================================================
+    @Around("limitedMethod(bulkhead)")
+    public Object limit(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Binding binding = bindings.computeIfAbsent(method, m -> bind(m, bulkhead));
+        SemaphoreBulkhead limiter = binding.bulkhead();
+        
+        if (!limiter.tryAcquire()) {
+            binding.rejected().increment();
+            if (log.isDebugEnabled()) {
+                log.debug(Prefixes.CORE_AOP + "[BULKHEAD] {} full ({} active), call rejected", limiter.name(), limiter.activeCalls());
+            }
+            throw new BulkheadFullException(limiter.name());
+        }
+        
+        boolean releaseNow = true;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof CompletableFuture<?> future) {
+                releaseNow = false;
+                future.whenComplete((value, error) -> limiter.release());
+            }
+            return result;
+        } finally {
+            if (releaseNow) {
+                limiter.release();
+            }
+        }
+    }
+    
+    private Binding bind(Method method, Bulkhead bulkhead) {
+        String name = bulkhead.name().isEmpty()
+            ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+            : bulkhead.name();
+        return new Binding(registry.bulkhead(name, bulkhead),
+            registry.rejectedCounter("aop.bulkhead.rejected", name));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.spring_cert_notes.aop;
+
+/**
+ * Thrown when a bulkhead has no free permit within its maxWait.
+ */
+public class BulkheadFullException extends RuntimeException {
+    
+    private final String bulkheadName;
+    
+    public BulkheadFullException(String bulkheadName) {
+        super("Bulkhead '" + bulkheadName + "' is full");
+        this.bulkheadName = bulkheadName;
+    }
+    
+    public String getBulkheadName() {
+        return bulkheadName;
+    }
+}
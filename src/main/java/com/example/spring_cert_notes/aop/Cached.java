@@ -0,0 +1,24 @@
+package com.example.spring_cert_notes.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation for result caching
+ * The result is cached per argument list for ttl, at most maxSize entries per cache
+ * 
+ * Concurrent misses on the same arguments run the method once; the other
+ * callers wait for that result (single flight). Null results and
+ * exceptions are not cached.
+ * 
+ * Methods sharing a name share one cache (default name: Class.method).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+    String name() default "";
+    long ttl() default 60000; // milliseconds since the entry was written
+    long maxSize() default 1000;
+}
@@ -0,0 +1,200 @@
+package com.example.spring_cert_notes.aop;
+
+import com.example.spring_cert_notes.Prefixes;
+import com.example.spring_cert_notes.actuator.metrics.BusinessMetrics;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ASPECT 8: CACHED ASPECT
+ * 
+ * One Caffeine AsyncCache per cache name (size + expire-after-write).
+ * Single flight: the first miss installs an incomplete future with
+ * putIfAbsent and runs the method on its own thread; concurrent misses
+ * find that future and wait on it. The method never runs inside a map
+ * compute, so a slow call does not block other keys.
+ * 
+ * Order 7 keeps it outside the transaction interceptor (lowest precedence),
+ * so @EvictCached runs after commit.
+ * 
+ * Hit ratio, size and evictions go to BusinessMetrics (method.cache.*).
+ */
+@Aspect
+@Component
+@Order(7)
+public class CachedAspect {
+    
+    private static final Logger log = LoggerFactory.getLogger(CachedAspect.class);
+    
+    private record MethodCache(String name, AsyncCache<ArgsKey, Object> cache, BusinessMetrics.CacheMeters meters) {}
+    
+    private final BusinessMetrics businessMetrics;
+    
+    private final Map<String, MethodCache> cachesByName = new ConcurrentHashMap<>();
+    private final Map<Method, MethodCache> cachesByMethod = new ConcurrentHashMap<>();
+    
+    public CachedAspect(ObjectProvider<BusinessMetrics> businessMetrics) {
+        // Plain AopConfig / JdbcConfig contexts have no actuator beans
+        this.businessMetrics = businessMetrics.getIfAvailable(() -> new BusinessMetrics(new SimpleMeterRegistry()));
+    }
+    
+    // ============================================================
+    // POINTCUTS
+    // ============================================================
+    @Pointcut("@annotation(cached)")
+    public void cachedMethod(Cached cached) {}
+    
+    @Pointcut("@annotation(evictCached)")
+    public void evictingMethod(EvictCached evictCached) {}
+    
+    // ============================================================
+    // CACHE LOOKUP ADVICE
+    // ============================================================
+    @Around("cachedMethod(cached)")
+    public Object cacheResult(ProceedingJoinPoint joinPoint, Cached cached) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodCache methodCache = cachesByMethod.computeIfAbsent(method, m -> cacheFor(m, cached));
+        ArgsKey key = ArgsKey.of(joinPoint.getArgs());
+        
+        CompletableFuture<Object> existing = methodCache.cache().getIfPresent(key);
+        if (existing == null) {
+            CompletableFuture<Object> mine = new CompletableFuture<>();
+            existing = methodCache.cache().asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                methodCache.meters().recordMiss();
+                return load(joinPoint, mine);
+            }
+        }
+        methodCache.meters().recordHit();
+        try {
+            return existing.join();
+        } catch (CompletionException ex) {
+            // The leader's call failed; each waiter sees the same exception
+            throw ex.getCause() != null ? ex.getCause() : ex;
+        }
+    }
+    
+    private Object load(ProceedingJoinPoint joinPoint, CompletableFuture<Object> mine) throws Throwable {
+        try {
+            Object result = joinPoint.proceed();
+            // A null value makes Caffeine drop the entry - nulls are not cached
+            mine.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            // A failed future is removed by Caffeine, the next call retries
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+    
+    // ============================================================
+    // EVICTION ADVICE
+    // ============================================================
+    @Around("evictingMethod(evictCached)")
+    public Object evict(ProceedingJoinPoint joinPoint, EvictCached evictCached) throws Throwable {
+        Object result = joinPoint.proceed();
+        
+        ArgsKey key = evictCached.allEntries() ? null : ArgsKey.of(joinPoint.getArgs(), evictCached.keyArgs());
+        for (String name : evictCached.value()) {
+            MethodCache methodCache = cachesByName.get(name);
+            if (methodCache == null) {
+                continue; // Nothing cached under this name yet
+            }
+            if (key == null) {
+                methodCache.cache().synchronous().invalidateAll();
+            } else {
+                methodCache.cache().synchronous().invalidate(key);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(Prefixes.CORE_AOP + "[CACHE] Evicted {} from {}", key == null ? "all entries" : key, name);
+            }
+        }
+        return result;
+    }
+    
+    private MethodCache cacheFor(Method method, Cached cached) {
+        String name = cached.name().isEmpty()
+            ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+            : cached.name();
+        return cachesByName.computeIfAbsent(name, key -> {
+            BusinessMetrics.CacheMeters meters = businessMetrics.registerMethodCache(key);
+            AsyncCache<ArgsKey, Object> cache = Caffeine.newBuilder()
+                .maximumSize(cached.maxSize())
+                .expireAfterWrite(Duration.ofMillis(cached.ttl()))
+                .removalListener((ArgsKey k, Object v, RemovalCause cause) -> {
+                    if (cause.wasEvicted() || cause == RemovalCause.EXPLICIT) {
+                        meters.recordEviction(cause.name().toLowerCase());
+                    }
+                })
+                .buildAsync();
+            meters.bindSize(() -> cache.synchronous().estimatedSize());
+            return new MethodCache(key, cache, meters);
+        });
+    }
+    
+    /**
+     * Argument fingerprint: element-wise (deep) equality over the argument array.
+     */
+    static final class ArgsKey {
+        
+        private static final ArgsKey NO_ARGS = new ArgsKey(new Object[0]);
+        
+        private final Object[] args;
+        private final int hash;
+        
+        private ArgsKey(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+        
+        static ArgsKey of(Object[] args) {
+            return args.length == 0 ? NO_ARGS : new ArgsKey(args.clone());
+        }
+        
+        static ArgsKey of(Object[] args, int[] indices) {
+            if (indices.length == 0) {
+                return of(args);
+            }
+            Object[] selected = new Object[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                selected[i] = args[indices[i]];
+            }
+            return new ArgsKey(selected);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ArgsKey key && hash == key.hash && Arrays.deepEquals(args, key.args);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public String toString() {
+            return Arrays.deepToString(args);
+        }
+    }
+}
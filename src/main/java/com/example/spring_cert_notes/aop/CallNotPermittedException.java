@@ -0,0 +1,18 @@
+package com.example.spring_cert_notes.aop;
+
+/**
+ * Thrown instead of calling the method while its circuit breaker is open.
+ */
+public class CallNotPermittedException extends RuntimeException {
+    
+    private final String breakerName;
+    
+    public CallNotPermittedException(String breakerName) {
+        super("Circuit breaker '" + breakerName + "' is open");
+        this.breakerName = breakerName;
+    }
+    
+    public String getBreakerName() {
+        return breakerName;
+    }
+}
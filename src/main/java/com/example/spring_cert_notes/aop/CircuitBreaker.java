@@ -0,0 +1,31 @@
+package com.example.spring_cert_notes.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation for circuit breaking
+ * Stops calling a failing dependency once its failure rate crosses the threshold
+ * 
+ * CLOSED    - calls pass, outcomes go into a sliding window of the last N calls
+ * OPEN      - calls fail fast with CallNotPermittedException for openDuration
+ * HALF_OPEN - a few probe calls pass; all succeed -> CLOSED, any fails -> OPEN,
+ *             no verdict within openDuration -> OPEN
+ * 
+ * Methods sharing a name share one breaker (default name: Class.method).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+    String name() default "";
+    int failureRateThreshold() default 50; // percent
+    int slidingWindowSize() default 20; // last N calls
+    int minimumCalls() default 10; // no decision before this many calls
+    long openDuration() default 10000; // milliseconds
+    int halfOpenProbes() default 3;
+    
+    // Not counted as failures (e.g. validation errors)
+    Class<? extends Throwable>[] ignore() default {};
+}
@@ -0,0 +1,100 @@
+package com.example.spring_cert_notes.aop;
+
+import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ASPECT 6: CIRCUIT BREAKER ASPECT
+ * 
+ * Runs inside RetryAspect (@Order(3)), so every retry attempt is counted by
+ * the breaker. Once it opens, attempts fail fast with
+ * CallNotPermittedException, which @Retry never retries.
+ * 
+ * For CompletableFuture methods the outcome is recorded when the future completes.
+ */
+@Aspect
+@Component
+@Order(5)
+public class CircuitBreakerAspect {
+    
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerAspect.class);
+    
+    private record Binding(SlidingWindowCircuitBreaker breaker, Counter notPermitted) {}
+    
+    private final ResilienceRegistry registry;
+    private final Map<Method, Binding> bindings = new ConcurrentHashMap<>();
+    
+    public CircuitBreakerAspect(ResilienceRegistry registry) {
+        this.registry = registry;
+    }
+    
+    // ============================================================
+    // POINTCUT: Methods annotated with @CircuitBreaker
+    // ============================================================
+    @Pointcut("@annotation(circuitBreaker)")
+    public void protectedMethod(CircuitBreaker circuitBreaker) {}
+    
+    // ============================================================
+    // CIRCUIT BREAKER ADVICE
+    // ============================================================
+    @Around("protectedMethod(circuitBreaker)")
+    public Object guard(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Binding binding = bindings.computeIfAbsent(method, m -> bind(m, circuitBreaker));
+        SlidingWindowCircuitBreaker breaker = binding.breaker();
+        
+        SlidingWindowCircuitBreaker.Phase permit = breaker.tryAcquirePermission();
+        if (permit == null) {
+            binding.notPermitted().increment();
+            if (log.isDebugEnabled()) {
+                log.debug(Prefixes.CORE_AOP + "[CIRCUIT] {} is {}, call rejected", breaker.name(), breaker.state());
+            }
+            throw new CallNotPermittedException(breaker.name());
+        }
+        
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            breaker.onError(permit, ex);
+            throw ex;
+        }
+        
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    breaker.onSuccess(permit);
+                } else {
+                    breaker.onError(permit, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                }
+            });
+        } else {
+            breaker.onSuccess(permit);
+        }
+        return result;
+    }
+    
+    private Binding bind(Method method, CircuitBreaker circuitBreaker) {
+        String name = circuitBreaker.name().isEmpty()
+            ? method.getDeclaringClass().getSimpleName() + "." + method.getName()
+            : circuitBreaker.name();
+        return new Binding(registry.circuitBreaker(name, circuitBreaker),
+            registry.rejectedCounter("aop.circuitbreaker.not.permitted", name));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.spring_cert_notes.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Companion to {@link Cached}: evicts entries after the method returns normally
+ * 
+ * - allEntries = true: clears the named caches
+ * - otherwise: evicts the entry whose key is built from keyArgs
+ *   (indices into this method's arguments; empty = all arguments)
+ * 
+ * Eviction runs outside @Transactional, so readers don't re-cache uncommitted data.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EvictCached {
+    String[] value(); // cache names
+    boolean allEntries() default false;
+    int[] keyArgs() default {};
+}
@@ -1,24 +1,79 @@
 package com.example.spring_cert_notes.aop;
 
 import com.example.spring_cert_notes.Prefixes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * ASPECT 5: EXCEPTION HANDLING ASPECT
  * 
  * Centralized exception handling and logging
  * Can transform exceptions, send alerts, etc.
+ * 
+ * A failure storm must not become a log storm:
+ * - every exception is counted per fingerprint (ExceptionStats)
+ * - detailed log lines go through a per-fingerprint token bucket
+ * - stack traces are logged only for sampled occurrences
+ * - a periodic summary reports counts, including suppressed ones
+ * 
+ * Aggregated stats: /actuator/exceptions
  */
 @Aspect
 @Component
 @Order(4)
 public class ExceptionHandlingAspect {
     
+    private static final Logger log = LoggerFactory.getLogger(ExceptionHandlingAspect.class);
+    
+    private final ExceptionStats stats;
+    private final Map<Method, String> methodNames = new ConcurrentHashMap<>();
+    private ScheduledExecutorService summaryScheduler;
+    
+    @Value("${aop.exceptions.summary-interval-seconds:60}")
+    private long summaryIntervalSeconds;
+    
+    public ExceptionHandlingAspect(ExceptionStats stats) {
+        this.stats = stats;
+    }
+    
+    @PostConstruct
+    void startSummary() {
+        if (summaryIntervalSeconds <= 0) {
+            return;
+        }
+        summaryScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "exception-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        summaryScheduler.scheduleAtFixedRate(this::logSummary,
+            summaryIntervalSeconds, summaryIntervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    @PreDestroy
+    void stopSummary() {
+        if (summaryScheduler != null) {
+            summaryScheduler.shutdownNow();
+        }
+    }
+    
     // ============================================================
     // POINTCUT: All methods in service package
     // ============================================================
@@ -30,16 +85,37 @@ public class ExceptionHandlingAspect {
     // ============================================================
     @AfterThrowing(pointcut = "inServicePackage()", throwing = "ex")
     public void handleException(JoinPoint joinPoint, Exception ex) {
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String methodName = methodNames.computeIfAbsent(method,
+            m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        
+        ExceptionStats.Occurrence occurrence = stats.record(ex, methodName);
+        ExceptionStats.FingerprintStats row = occurrence.stats();
+        if (!log.isWarnEnabled() || !row.tryLog()) {
+            return;  // Counted; the summary will report it
+        }
         
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] ================================");
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] Class: " + className);
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] Method: " + methodName);
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] Type: " + ex.getClass().getName());
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] Message: " + ex.getMessage());
-        System.out.println(Prefixes.CORE_AOP + "[EXCEPTION] ================================");
+        if (occurrence.sampled()) {
+            log.warn(Prefixes.CORE_AOP + "[EXCEPTION] fingerprint={} method={} count={} type={} message={}",
+                row.getId(), methodName, row.getCount(), ex.getClass().getName(), ex.getMessage(), ex);
+        } else {
+            log.warn(Prefixes.CORE_AOP + "[EXCEPTION] fingerprint={} method={} count={} type={} message={}",
+                row.getId(), methodName, row.getCount(), ex.getClass().getName(), ex.getMessage());
+        }
         
         // In real app: send alert, log to monitoring system, etc.
     }
+    
+    // ============================================================
+    // PERIODIC SUMMARY
+    // ============================================================
+    void logSummary() {
+        for (ExceptionStats.FingerprintStats row : stats.snapshot()) {
+            long recent = row.drainSinceSummary();
+            if (recent > 0) {
+                log.warn(Prefixes.CORE_AOP + "[EXCEPTION-SUMMARY] fingerprint={} type={} last{}s={} total={} suppressedLogs={}",
+                    row.getId(), row.getType(), summaryIntervalSeconds, recent, row.getCount(), row.getSuppressedLogs());
+            }
+        }
+    }
 }
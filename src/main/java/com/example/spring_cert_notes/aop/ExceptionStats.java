@@ -0,0 +1,271 @@
+package com.example.spring_cert_notes.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated exception statistics, grouped by fingerprint.
+ * <p>
+ * Fingerprint = exception type + top N stack frames (class.method:line),
+ * so the same bug thrown a million times is one row with a count.
+ * Distinct fingerprints are capped; extra ones fold into an "overflow" row.
+ * <p>
+ * Stack traces are kept only for sampled occurrences: the first one of a
+ * fingerprint and then every sample-every'th.
+ * <p>
+ * Row ids are a truncated SHA-256 of the fingerprint, so two fingerprints
+ * do not end up sharing one id (and one counter) the way String.hashCode could.
+ * <p>
+ * Metrics: aop.exceptions{exception, fingerprint}
+ */
+@Component
+public class ExceptionStats {
+    
+    static final String OVERFLOW = "overflow";
+    
+    // 16 hex chars = 64 bits of the digest
+    private static final int ID_BYTES = 8;
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, FingerprintStats> byFingerprint = new ConcurrentHashMap<>();
+    
+    @Value("${aop.exceptions.fingerprint-frames:3}")
+    private int fingerprintFrames;
+    
+    @Value("${aop.exceptions.max-fingerprints:500}")
+    private int maxFingerprints;
+    
+    @Value("${aop.exceptions.sample-every:100}")
+    private long sampleEvery;
+    
+    @Value("${aop.exceptions.sample-max-frames:30}")
+    private int sampleMaxFrames;
+    
+    @Value("${aop.exceptions.log-burst:5}")
+    private int logBurst;
+    
+    @Value("${aop.exceptions.log-refill-seconds:10}")
+    private long logRefillSeconds;
+    
+    public ExceptionStats(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Plain AopConfig context has no registry - counters still work locally
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+    
+    /**
+     * One counted occurrence; sampled = this occurrence's stack trace was kept
+     */
+    record Occurrence(FingerprintStats stats, boolean sampled) {}
+    
+    /**
+     * Count one occurrence; the caller decides on logging from the result
+     */
+    Occurrence record(Throwable ex, String method) {
+        StackTraceElement[] frames = ex.getStackTrace();
+        String fingerprint = fingerprint(ex, frames);
+        FingerprintStats stats = byFingerprint.get(fingerprint);
+        if (stats == null) {
+            if (byFingerprint.size() >= maxFingerprints) {
+                fingerprint = OVERFLOW;
+            }
+            stats = byFingerprint.computeIfAbsent(fingerprint, key -> newStats(key, ex, frames, method));
+        }
+        return new Occurrence(stats, stats.occurred(ex, frames));
+    }
+    
+    public Collection<FingerprintStats> snapshot() {
+        List<FingerprintStats> rows = new ArrayList<>(byFingerprint.values());
+        rows.sort(Comparator.comparingLong(FingerprintStats::getCount).reversed());
+        return rows;
+    }
+    
+    public FingerprintStats get(String id) {
+        for (FingerprintStats stats : byFingerprint.values()) {
+            if (stats.getId().equals(id)) {
+                return stats;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Drops every row and unregisters its counter, so metrics and rows agree again
+     */
+    public void reset() {
+        Iterator<FingerprintStats> rows = byFingerprint.values().iterator();
+        while (rows.hasNext()) {
+            FingerprintStats stats = rows.next();
+            rows.remove();
+            meterRegistry.remove(stats.counter);
+        }
+    }
+    
+    private String fingerprint(Throwable ex, StackTraceElement[] frames) {
+        StringBuilder key = new StringBuilder(ex.getClass().getName());
+        for (int i = 0; i < Math.min(fingerprintFrames, frames.length); i++) {
+            StackTraceElement frame = frames[i];
+            key.append('|').append(frame.getClassName()).append('.').append(frame.getMethodName())
+                .append(':').append(frame.getLineNumber());
+        }
+        return key.toString();
+    }
+    
+    private FingerprintStats newStats(String key, Throwable ex, StackTraceElement[] frames, String method) {
+        String id = OVERFLOW.equals(key) ? OVERFLOW : fingerprintId(key);
+        String type = OVERFLOW.equals(key) ? OVERFLOW : ex.getClass().getName();
+        List<String> topFrames = new ArrayList<>();
+        if (!OVERFLOW.equals(key)) {
+            for (int i = 0; i < Math.min(fingerprintFrames, frames.length); i++) {
+                topFrames.add(frames[i].toString());
+            }
+        }
+        Counter counter = Counter.builder("aop.exceptions")
+            .description("Exceptions thrown from aop.service, by fingerprint")
+            .tag("exception", OVERFLOW.equals(key) ? OVERFLOW : ex.getClass().getSimpleName())
+            .tag("fingerprint", id)
+            .register(meterRegistry);
+        return new FingerprintStats(id, type, method, List.copyOf(topFrames), counter,
+            new TokenBucket(logBurst, logRefillSeconds, TimeUnit.SECONDS));
+    }
+    
+    static String fingerprintId(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, ID_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE must ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // ============================================================
+    // ONE ROW PER FINGERPRINT
+    // ============================================================
+    public final class FingerprintStats {
+        
+        private final String id;
+        private final String type;
+        private final String firstMethod;
+        private final List<String> topFrames;
+        private final Counter counter;
+        private final TokenBucket logBucket;
+        
+        private final AtomicLong count = new AtomicLong();
+        private final LongAdder suppressedLogs = new LongAdder();
+        private final long firstSeen = System.currentTimeMillis();
+        private volatile long lastSeen;
+        private volatile String lastMessage;
+        private volatile String sampledStackTrace;
+        
+        // Counts since the last periodic summary
+        private final LongAdder sinceSummary = new LongAdder();
+        
+        private FingerprintStats(String id, String type, String firstMethod, List<String> topFrames,
+                                 Counter counter, TokenBucket logBucket) {
+            this.id = id;
+            this.type = type;
+            this.firstMethod = firstMethod;
+            this.topFrames = topFrames;
+            this.counter = counter;
+            this.logBucket = logBucket;
+        }
+        
+        private boolean occurred(Throwable ex, StackTraceElement[] frames) {
+            long n = count.incrementAndGet();
+            sinceSummary.increment();
+            counter.increment();
+            lastSeen = System.currentTimeMillis();
+            lastMessage = ex.getMessage();
+            
+            // First occurrence and every sample-every'th one
+            boolean sampled = n == 1 || (sampleEvery > 0 && n % sampleEvery == 0);
+            if (sampled) {
+                sampledStackTrace = render(ex, frames);
+            }
+            return sampled;
+        }
+        
+        boolean tryLog() {
+            if (logBucket.tryAcquire()) {
+                return true;
+            }
+            suppressedLogs.increment();
+            return false;
+        }
+        
+        long drainSinceSummary() {
+            return sinceSummary.sumThenReset();
+        }
+        
+        private String render(Throwable ex, StackTraceElement[] frames) {
+            StringBuilder trace = new StringBuilder(ex.toString());
+            int shown = Math.min(sampleMaxFrames, frames.length);
+            for (int i = 0; i < shown; i++) {
+                trace.append("\n\tat ").append(frames[i]);
+            }
+            if (frames.length > shown) {
+                trace.append("\n\t... ").append(frames.length - shown).append(" more");
+            }
+            return trace.toString();
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public String getFirstMethod() {
+            return firstMethod;
+        }
+        
+        public List<String> getTopFrames() {
+            return topFrames;
+        }
+        
+        public long getCount() {
+            return count.get();
+        }
+        
+        public long getSuppressedLogs() {
+            return suppressedLogs.sum();
+        }
+        
+        public long getFirstSeen() {
+            return firstSeen;
+        }
+        
+        public long getLastSeen() {
+            return lastSeen;
+        }
+        
+        public String getLastMessage() {
+            return lastMessage;
+        }
+        
+        public String getSampledStackTrace() {
+            return sampledStackTrace;
+        }
+    }
+}
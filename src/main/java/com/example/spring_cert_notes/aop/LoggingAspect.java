@@ -1,29 +1,51 @@
 package com.example.spring_cert_notes.aop;
 
 import com.example.spring_cert_notes.Prefixes;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.*;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ASPECT 1: LOGGING ASPECT
  * 
- * Demonstrates all 5 types of Advice:
- * 1. @Before - Before method execution
- * 2. @After - After method (finally)
- * 3. @AfterReturning - After successful return
- * 4. @AfterThrowing - After exception thrown
- * 5. @Around - Wraps method execution
+ * The 5 types of Advice, expressed as one @Around:
+ * 1. @Before - logged before proceed()
+ * 2. @After - logged in finally
+ * 3. @AfterReturning - logged after a normal return
+ * 4. @AfterThrowing - logged in catch
+ * 5. @Around - wraps method execution (timing)
+ * 
+ * Five separate advices on the same pointcut meant five interceptors in the
+ * proxy chain and five signature lookups per call. A single around-advice is
+ * one interceptor, and class/method names are resolved once per
+ * (target class, Method) and cached in {@link #metadataCache}. The target
+ * class is part of the key so a method declared on an interface or superclass
+ * is still logged under the class that actually ran it.
+ * 
+ * Logging is DEBUG and guarded by isDebugEnabled(): when the category is off,
+ * the advice does no string building, boxing or signature lookups.
  */
 @Aspect
 @Component
 @Order(1)  // Lower number = higher priority
 public class LoggingAspect {
     
+    private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
+    
+    // Resolved once per (target class, advised method), read lock-free afterwards
+    private final Map<MethodKey, MethodMetadata> metadataCache = new ConcurrentHashMap<>();
+    
     // ============================================================
     // POINTCUT DEFINITIONS
     // ============================================================
@@ -41,74 +63,56 @@ public class LoggingAspect {
     public void publicServiceMethod() {}
     
     // ============================================================
-    // 1. @BEFORE ADVICE
-    // ============================================================
-    @Before("serviceLayer()")
-    public void logBefore(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        Object[] args = joinPoint.getArgs();
-        
-        System.out.println(Prefixes.CORE_AOP + 
-            "[BEFORE] " + className + "." + methodName + "() - Args: " + Arrays.toString(args));
-    }
-    
-    // ============================================================
-    // 2. @AFTER ADVICE (finally - always executes)
-    // ============================================================
-    @After("serviceLayer()")
-    public void logAfter(JoinPoint joinPoint) {
-        String methodName = joinPoint.getSignature().getName();
-        System.out.println(Prefixes.CORE_AOP + 
-            "[AFTER] " + methodName + "() completed (finally)");
-    }
-    
-    // ============================================================
-    // 3. @AFTERRETURNING ADVICE
-    // ============================================================
-    @AfterReturning(pointcut = "serviceLayer()", returning = "result")
-    public void logAfterReturning(JoinPoint joinPoint, Object result) {
-        String methodName = joinPoint.getSignature().getName();
-        System.out.println(Prefixes.CORE_AOP + 
-            "[AFTER_RETURNING] " + methodName + "() returned: " + result);
-    }
-    
+    // SINGLE AROUND ADVICE (before / after / returning / throwing / timing)
     // ============================================================
-    // 4. @AFTERTHROWING ADVICE
-    // ============================================================
-    @AfterThrowing(pointcut = "serviceLayer()", throwing = "ex")
-    public void logAfterThrowing(JoinPoint joinPoint, Throwable ex) {
-        String methodName = joinPoint.getSignature().getName();
-        System.out.println(Prefixes.CORE_AOP + 
-            "[AFTER_THROWING] " + methodName + "() threw: " + ex.getClass().getSimpleName() + " - " + ex.getMessage());
-    }
-    
-    // ============================================================
-    // 5. @AROUND ADVICE (most powerful)
-    // ============================================================
-    @Around("execution(* com.example.spring_cert_notes.aop.service.*.*(..))")
-    public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        
-        System.out.println(Prefixes.CORE_AOP + 
-            "[AROUND-START] " + className + "." + methodName + "()");
+    @Around("serviceLayer()")
+    public Object logInvocation(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!log.isDebugEnabled()) {
+            return joinPoint.proceed();
+        }
+        MethodMetadata meta = metadataFor(joinPoint);
         
-        long start = System.currentTimeMillis();
+        // Args array is rendered by the logger only if the event is written
+        log.debug(Prefixes.CORE_AOP + "[BEFORE] {}() - Args: {}", meta.qualifiedName(), joinPoint.getArgs());
         
+        long start = System.nanoTime();
         try {
             Object result = joinPoint.proceed();  // Execute the method
-            
-            long executionTime = System.currentTimeMillis() - start;
-            System.out.println(Prefixes.CORE_AOP + 
-                "[AROUND-END] " + methodName + "() executed in " + executionTime + "ms");
-            
+            log.debug(Prefixes.CORE_AOP + "[AFTER_RETURNING] {}() returned: {}", meta.methodName(), result);
             return result;
         } catch (Throwable ex) {
-            long executionTime = System.currentTimeMillis() - start;
-            System.out.println(Prefixes.CORE_AOP + 
-                "[AROUND-ERROR] " + methodName + "() failed after " + executionTime + "ms");
+            log.debug(Prefixes.CORE_AOP + "[AFTER_THROWING] {}() threw: {} - {}",
+                meta.methodName(), ex.getClass().getSimpleName(), ex.getMessage());
             throw ex;
+        } finally {
+            long executionTime = (System.nanoTime() - start) / 1_000_000;
+            log.debug(Prefixes.CORE_AOP + "[AFTER] {}() completed in {}ms (finally)", meta.methodName(), executionTime);
+        }
+    }
+    
+    MethodMetadata metadataFor(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object target = joinPoint.getTarget();
+        Class<?> targetClass = target != null ? ClassUtils.getUserClass(target) : method.getDeclaringClass();
+        MethodKey key = new MethodKey(targetClass, method);
+        MethodMetadata meta = metadataCache.get(key);
+        if (meta == null) {
+            meta = metadataCache.computeIfAbsent(key, MethodMetadata::of);
+        }
+        return meta;
+    }
+    
+    record MethodKey(Class<?> targetClass, Method method) {}
+    
+    /**
+     * Names used in log lines, computed once per (target class, advised method).
+     */
+    record MethodMetadata(String className, String methodName, String qualifiedName) {
+        
+        static MethodMetadata of(MethodKey key) {
+            String className = key.targetClass().getSimpleName();
+            String methodName = key.method().getName();
+            return new MethodMetadata(className, methodName, className + "." + methodName);
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.example.spring_cert_notes.aop;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead state under /actuator/health ("resilience").
+ * 
+ * An open breaker means a dependency is failing, not that this application is
+ * down, so it reports WARNING rather than DOWN.
+ */
+@Component("resilience")
+public class ResilienceHealthIndicator implements HealthIndicator {
+    
+    private final ResilienceRegistry registry;
+    
+    public ResilienceHealthIndicator(ResilienceRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public Health health() {
+        boolean degraded = false;
+        
+        Map<String, Object> breakers = new LinkedHashMap<>();
+        for (SlidingWindowCircuitBreaker breaker : registry.circuitBreakers()) {
+            SlidingWindowCircuitBreaker.State state = breaker.state();
+            degraded |= state != SlidingWindowCircuitBreaker.State.CLOSED;
+            breakers.put(breaker.name(), Map.of(
+                "state", state,
+                "failureRate", breaker.failureRate() < 0 ? "n/a" : String.format("%.1f%%", breaker.failureRate()),
+                "bufferedCalls", breaker.bufferedCalls()));
+        }
+        
+        Map<String, Object> bulkheads = new LinkedHashMap<>();
+        for (SemaphoreBulkhead bulkhead : registry.bulkheads()) {
+            bulkheads.put(bulkhead.name(), Map.of(
+                "active", bulkhead.activeCalls(),
+                "maxConcurrent", bulkhead.maxConcurrent()));
+        }
+        
+        Health.Builder builder = degraded
+            ? Health.status("WARNING").withDetail("warning", "Circuit breaker not closed")
+            : Health.up();
+        return builder
+            .withDetail("circuitBreakers", breakers)
+            .withDetail("bulkheads", bulkheads)
+            .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.spring_cert_notes.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named circuit breakers and bulkheads shared by the aspects and the
+ * health indicator. Gauges are registered once, when an instance is created.
+ * 
+ * Metrics (tag "name"):
+ * - aop.circuitbreaker.state        0 = closed, 1 = open, 2 = half-open
+ * - aop.circuitbreaker.failure.rate percent over the window, -1 below minimumCalls
+ * - aop.circuitbreaker.not.permitted calls rejected while open
+ * - aop.bulkhead.active / aop.bulkhead.available
+ * - aop.bulkhead.rejected
+ */
+@Component
+public class ResilienceRegistry {
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<String, SlidingWindowCircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, SemaphoreBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    
+    public ResilienceRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Plain AopConfig context has no registry - gauges still work locally
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+    
+    SlidingWindowCircuitBreaker circuitBreaker(String name, CircuitBreaker config) {
+        return breakers.computeIfAbsent(name, key -> {
+            SlidingWindowCircuitBreaker breaker = new SlidingWindowCircuitBreaker(key, config);
+            Gauge.builder("aop.circuitbreaker.state", breaker, b -> b.state().ordinal())
+                .description("Circuit breaker state (0 closed, 1 open, 2 half-open)")
+                .tag("name", key)
+                .register(meterRegistry);
+            Gauge.builder("aop.circuitbreaker.failure.rate", breaker, SlidingWindowCircuitBreaker::failureRate)
+                .description("Failure rate in percent over the sliding window")
+                .tag("name", key)
+                .register(meterRegistry);
+            return breaker;
+        });
+    }
+    
+    SemaphoreBulkhead bulkhead(String name, Bulkhead config) {
+        return bulkheads.computeIfAbsent(name, key -> {
+            SemaphoreBulkhead bulkhead = new SemaphoreBulkhead(key, config);
+            Gauge.builder("aop.bulkhead.active", bulkhead, SemaphoreBulkhead::activeCalls)
+                .description("Calls currently inside the bulkhead")
+                .tag("name", key)
+                .register(meterRegistry);
+            Gauge.builder("aop.bulkhead.available", bulkhead, SemaphoreBulkhead::availablePermits)
+                .description("Free bulkhead permits")
+                .tag("name", key)
+                .register(meterRegistry);
+            return bulkhead;
+        });
+    }
+    
+    Counter rejectedCounter(String meter, String name) {
+        return rejections.computeIfAbsent(meter + "|" + name, key -> Counter.builder(meter)
+            .description("Calls rejected without running the method")
+            .tag("name", name)
+            .register(meterRegistry));
+    }
+    
+    Collection<SlidingWindowCircuitBreaker> circuitBreakers() {
+        return breakers.values();
+    }
+    
+    Collection<SemaphoreBulkhead> bulkheads() {
+        return bulkheads.values();
+    }
+}
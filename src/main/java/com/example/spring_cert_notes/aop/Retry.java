@@ -8,10 +8,25 @@ import java.lang.annotation.Target;
 /**
  * Custom annotation for retry logic
  * Methods annotated with @Retry will be retried on failure
+ * 
+ * Delay before attempt n+1 = delay * multiplier^(n-1), capped at maxDelay,
+ * then spread by +/- jitter. Defaults keep the old fixed-delay behavior.
+ * 
+ * Methods returning CompletableFuture are retried asynchronously: the
+ * caller gets a future immediately and re-attempts are scheduled instead
+ * of sleeping on the calling thread.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Retry {
     int maxAttempts() default 3;
     long delay() default 1000; // milliseconds
+    double multiplier() default 1.0; // 2.0 = exponential backoff
+    long maxDelay() default 30000; // milliseconds, upper bound per wait
+    double jitter() default 0.0; // 0.2 = +/-20% random spread
+    
+    // Empty = retry on any exception
+    Class<? extends Throwable>[] retryOn() default {};
+    // Checked first; wins over retryOn
+    Class<? extends Throwable>[] noRetryOn() default {};
 }
@@ -1,24 +1,80 @@
 package com.example.spring_cert_notes.aop;
 
 import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * ASPECT 4: RETRY ASPECT
  * 
  * Automatically retries failed method calls
  * Useful for transient failures (network, database)
+ * 
+ * Two modes, chosen by the method's return type:
+ * - Synchronous: waits between attempts on the calling thread.
+ * - CompletableFuture: returns immediately; each re-attempt is scheduled on
+ *   a shared ScheduledExecutorService, so no thread is held during backoff.
+ *   Re-attempts run on the scheduler thread, so the method should only
+ *   start its work and return the future.
+ * 
+ * Metrics (tag "method" = Class.method):
+ * - aop.retry.calls{outcome=success|recovered|exhausted|not_retryable}
+ * - aop.retry.retries - re-attempts made
  */
 @Aspect
 @Component
 @Order(3)
 public class RetryAspect {
     
+    private static final Logger log = LoggerFactory.getLogger(RetryAspect.class);
+    
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    
+    private final Map<Method, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<Method, RetryMetrics> metrics = new ConcurrentHashMap<>();
+    
+    public RetryAspect(ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${aop.retry.scheduler-threads:1}") int schedulerThreads) {
+        // Plain AopConfig context has no registry - counters still work locally
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, schedulerThreads), task -> {
+            Thread thread = new Thread(task, "retry-scheduler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
     // ============================================================
     // POINTCUT: Methods annotated with @Retry
     // ============================================================
@@ -30,34 +86,149 @@ public class RetryAspect {
     // ============================================================
     @Around("retryableMethod(retry)")
     public Object retryOnFailure(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
-        String methodName = joinPoint.getSignature().getName();
-        int maxAttempts = retry.maxAttempts();
-        long delay = retry.delay();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RetryPolicy policy = policies.computeIfAbsent(method, m -> new RetryPolicy(retry));
+        RetryMetrics counters = metrics.computeIfAbsent(method, this::createMetrics);
         
-        Throwable lastException = null;
+        if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            attemptAsync(joinPoint, policy, counters, 1, result);
+            return result;
+        }
+        return retrySync(joinPoint, policy, counters);
+    }
+    
+    // ============================================================
+    // SYNCHRONOUS MODE
+    // ============================================================
+    private Object retrySync(ProceedingJoinPoint joinPoint, RetryPolicy policy,
+                             RetryMetrics counters) throws Throwable {
+        int maxAttempts = policy.maxAttempts();
         
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+        for (int attempt = 1; ; attempt++) {
             try {
-                System.out.println(Prefixes.CORE_AOP + 
-                    "[RETRY] Attempt " + attempt + "/" + maxAttempts + " for " + methodName + "()");
+                if (log.isDebugEnabled()) {
+                    log.debug(Prefixes.CORE_AOP + "[RETRY] Attempt {}/{} for {}()", attempt, maxAttempts, counters.name());
+                }
                 
-                return joinPoint.proceed();
+                Object result = joinPoint.proceed();
+                counters.succeeded(attempt);
+                return result;
                 
             } catch (Throwable ex) {
-                lastException = ex;
-                System.out.println(Prefixes.CORE_AOP + 
-                    "[RETRY] Attempt " + attempt + " failed: " + ex.getMessage());
-                
-                if (attempt < maxAttempts) {
-                    System.out.println(Prefixes.CORE_AOP + 
-                        "[RETRY] Waiting " + delay + "ms before retry...");
-                    Thread.sleep(delay);
+                if (!shouldRetry(policy, counters, attempt, ex)) {
+                    throw ex;
+                }
+                long delay = policy.delayAfter(attempt);
+                if (log.isDebugEnabled()) {
+                    log.debug(Prefixes.CORE_AOP + "[RETRY] Waiting {}ms before retry...", delay);
                 }
+                counters.retries().increment();
+                Thread.sleep(delay);
+            }
+        }
+    }
+    
+    // ============================================================
+    // ASYNC MODE (CompletableFuture return type)
+    // ============================================================
+    private void attemptAsync(ProceedingJoinPoint joinPoint, RetryPolicy policy, RetryMetrics counters,
+                              int attempt, CompletableFuture<Object> result) {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.CORE_AOP + "[RETRY] Async attempt {}/{} for {}()", attempt, policy.maxAttempts(), counters.name());
+        }
+        CompletableFuture<?> call;
+        try {
+            call = (CompletableFuture<?>) joinPoint.proceed();
+        } catch (Throwable ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        if (call == null) {
+            call = CompletableFuture.completedFuture(null);
+        }
+        
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                counters.succeeded(attempt);
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (!shouldRetry(policy, counters, attempt, cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = policy.delayAfter(attempt);
+            if (log.isDebugEnabled()) {
+                log.debug(Prefixes.CORE_AOP + "[RETRY] Scheduling retry of {}() in {}ms", counters.name(), delay);
             }
+            counters.retries().increment();
+            try {
+                scheduler.schedule(() -> attemptAsync(joinPoint, policy, counters, attempt + 1, result),
+                    delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException rejected) {
+                // Scheduler shut down with the context
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+    
+    // ============================================================
+    // HELPERS
+    // ============================================================
+    private boolean shouldRetry(RetryPolicy policy, RetryMetrics counters, int attempt, Throwable ex) {
+        if (!policy.isRetryable(ex)) {
+            log.info(Prefixes.CORE_AOP + "[RETRY] {}() failed with non-retryable {}", counters.name(), ex.getClass().getSimpleName());
+            counters.notRetryable().increment();
+            return false;
         }
+        if (log.isInfoEnabled()) {
+            log.info(Prefixes.CORE_AOP + "[RETRY] Attempt {} failed: {}", attempt, ex.getMessage());
+        }
+        if (attempt >= policy.maxAttempts()) {
+            log.warn(Prefixes.CORE_AOP + "[RETRY] All {} attempts failed for {}()", policy.maxAttempts(), counters.name());
+            counters.exhausted().increment();
+            return false;
+        }
+        return true;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+    
+    private RetryMetrics createMetrics(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new RetryMetrics(name,
+            callCounter(name, "success"),
+            callCounter(name, "recovered"),
+            callCounter(name, "exhausted"),
+            callCounter(name, "not_retryable"),
+            Counter.builder("aop.retry.retries")
+                .description("Re-attempts made by @Retry")
+                .tag("method", name)
+                .register(meterRegistry));
+    }
+    
+    private Counter callCounter(String method, String outcome) {
+        return Counter.builder("aop.retry.calls")
+            .description("@Retry calls by final outcome")
+            .tag("method", method)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+    
+    // Counters resolved once per method, no registry lookup on the call path
+    private record RetryMetrics(String name, Counter success, Counter recovered, Counter exhausted,
+                                Counter notRetryable, Counter retries) {
         
-        System.out.println(Prefixes.CORE_AOP + 
-            "[RETRY] All " + maxAttempts + " attempts failed for " + methodName + "()");
-        throw lastException;
+        void succeeded(int attempt) {
+            (attempt == 1 ? success : recovered).increment();
+        }
     }
 }
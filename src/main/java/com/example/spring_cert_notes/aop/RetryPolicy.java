@@ -0,0 +1,77 @@
+package com.example.spring_cert_notes.aop;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resolved form of a {@link Retry} annotation.
+ * <p>
+ * Annotation attributes are read once per method; reading them on every
+ * call goes through a reflective proxy and clones the class arrays.
+ */
+final class RetryPolicy {
+    
+    private final int maxAttempts;
+    private final long delay;
+    private final double multiplier;
+    private final long maxDelay;
+    private final double jitter;
+    private final Class<? extends Throwable>[] retryOn;
+    private final Class<? extends Throwable>[] noRetryOn;
+    
+    RetryPolicy(Retry retry) {
+        if (retry.maxAttempts() < 1) {
+            throw new IllegalArgumentException("@Retry maxAttempts must be >= 1");
+        }
+        if (retry.multiplier() < 1.0) {
+            throw new IllegalArgumentException("@Retry multiplier must be >= 1.0");
+        }
+        if (retry.jitter() < 0.0 || retry.jitter() > 1.0) {
+            throw new IllegalArgumentException("@Retry jitter must be between 0.0 and 1.0");
+        }
+        this.maxAttempts = retry.maxAttempts();
+        this.delay = Math.max(0, retry.delay());
+        this.multiplier = retry.multiplier();
+        this.maxDelay = Math.max(this.delay, retry.maxDelay());
+        this.jitter = retry.jitter();
+        this.retryOn = retry.retryOn();
+        this.noRetryOn = retry.noRetryOn();
+    }
+    
+    int maxAttempts() {
+        return maxAttempts;
+    }
+    
+    /**
+     * Wait before the attempt following {@code failedAttempt} (1-based).
+     */
+    long delayAfter(int failedAttempt) {
+        double base = delay * Math.pow(multiplier, failedAttempt - 1);
+        double capped = Math.min(base, maxDelay);
+        if (jitter > 0.0 && capped > 0.0) {
+            double spread = capped * jitter;
+            capped += ThreadLocalRandom.current().nextDouble(-spread, spread);
+        }
+        return Math.max(0, Math.min((long) capped, maxDelay));
+    }
+    
+    boolean isRetryable(Throwable ex) {
+        // An open breaker will not close within a backoff; retrying only adds load
+        if (ex instanceof CallNotPermittedException) {
+            return false;
+        }
+        for (Class<? extends Throwable> type : noRetryOn) {
+            if (type.isInstance(ex)) {
+                return false;
+            }
+        }
+        if (retryOn.length == 0) {
+            return true;
+        }
+        for (Class<? extends Throwable> type : retryOn) {
+            if (type.isInstance(ex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.spring_cert_notes.aop;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns one bit of a long to each role named in a @Secured annotation.
+ * <p>
+ * Only roles that some method requires get a bit; other authorities
+ * (permissions, unknown roles) contribute nothing to a caller's mask.
+ * "ROLE_ADMIN" and "ADMIN" map to the same bit.
+ */
+final class RoleBits {
+    
+    static final int MAX_ROLES = Long.SIZE;
+    private static final String ROLE_PREFIX = "ROLE_";
+    
+    private final Map<String, Long> bits = new ConcurrentHashMap<>();
+    
+    // Bumped whenever a bit is added, so cached caller masks know they are stale
+    private volatile int generation;
+    
+    /**
+     * Mask of the given required roles, assigning bits for new names.
+     */
+    synchronized long register(String[] roles) {
+        long mask = 0L;
+        for (String role : roles) {
+            String name = normalize(role);
+            Long bit = bits.get(name);
+            if (bit == null) {
+                if (bits.size() == MAX_ROLES) {
+                    throw new IllegalStateException("@Secured supports at most " + MAX_ROLES + " distinct roles");
+                }
+                bit = 1L << bits.size();
+                bits.put(name, bit);
+                generation++;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+    
+    /**
+     * Mask of a caller's authorities; lookup only, never assigns bits.
+     */
+    long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name == null) {
+                continue;
+            }
+            Long bit = bits.get(normalize(name));
+            if (bit != null) {
+                mask |= bit;
+            }
+        }
+        return mask;
+    }
+    
+    int generation() {
+        return generation;
+    }
+    
+    private static String normalize(String role) {
+        return role.startsWith(ROLE_PREFIX) ? role.substring(ROLE_PREFIX.length()) : role;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.spring_cert_notes.aop;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles @Secured role lists into bitmasks while beans are created,
+ * before the AOP proxy wraps them. SecurityAspect then authorizes with one
+ * AND between the method mask and the caller's cached mask.
+ * <p>
+ * Caller masks are cached by the set of authority names, not by the
+ * authorities collection: AbstractAuthenticationToken copies its authorities
+ * into a new list and the JWT filter builds a new token per request, so an
+ * identity key would miss every time. All tokens with the same authorities
+ * share one entry. The token's granted authorities are authoritative (they
+ * may be narrower than the principal's, e.g. run-as tokens), so the
+ * principal's are never used.
+ */
+@Component
+public class SecuredMethodCompiler implements BeanPostProcessor {
+    
+    private record CallerMask(long mask, int generation) {}
+    
+    private final RoleBits roleBits = new RoleBits();
+    private final Map<Method, Long> requiredMasks = new ConcurrentHashMap<>();
+    private final Cache<Set<String>, CallerMask> callerMasks = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build();
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        Class<?> userClass = ClassUtils.getUserClass(bean);
+        if (!AnnotationUtils.isCandidateClass(userClass, Secured.class)) {
+            return bean;  // JDK / framework types, nothing to scan
+        }
+        ReflectionUtils.doWithMethods(userClass, method -> {
+            Secured secured = AnnotatedElementUtils.findMergedAnnotation(method, Secured.class);
+            if (secured != null) {
+                requiredMasks.put(method, roleBits.register(secured.roles()));
+            }
+        }, method -> !method.isBridge() && method.getDeclaringClass() != Object.class);
+        return bean;
+    }
+    
+    /**
+     * Required mask for the method; compiled on first use if the join point
+     * method differs from the one seen at creation (e.g. an interface method).
+     */
+    long requiredMask(Method method, Secured secured) {
+        Long mask = requiredMasks.get(method);
+        if (mask == null) {
+            mask = requiredMasks.computeIfAbsent(method, m -> roleBits.register(secured.roles()));
+        }
+        return mask;
+    }
+    
+    long callerMask(Authentication authentication) {
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+        Set<String> names = authorityNames(authorities);
+        int generation = roleBits.generation();
+        CallerMask cached = callerMasks.getIfPresent(names);
+        if (cached == null || cached.generation() != generation) {
+            cached = new CallerMask(roleBits.maskOf(authorities), generation);
+            callerMasks.put(names, cached);
+        }
+        return cached.mask();
+    }
+    
+    private static Set<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
+        Set<String> names = new HashSet<>(authorities.size() * 2);
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
@@ -5,25 +5,47 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * ASPECT 2: SECURITY ASPECT
  * 
  * Demonstrates @annotation pointcut for custom annotations
- * Checks if user has required roles before method execution
+ * Checks if the caller (Spring Security Authentication) has any required role
+ * 
+ * Required roles are compiled to a bitmask per method when the bean is
+ * created (SecuredMethodCompiler); the caller's mask is cached, so the
+ * check itself is a single AND.
+ * 
+ * @Secured with no roles only requires an authenticated caller.
+ * Anonymous tokens report isAuthenticated() == true, so they are rejected
+ * explicitly.
  */
 @Aspect
 @Component
 @Order(0)  // Highest priority - security check first!
 public class SecurityAspect {
     
-    // Simulated current user roles (in real app, get from SecurityContext)
-    private static final List<String> CURRENT_USER_ROLES = Arrays.asList("USER", "ADMIN");
+    private static final Logger log = LoggerFactory.getLogger(SecurityAspect.class);
+    
+    private final SecuredMethodCompiler compiler;
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    
+    public SecurityAspect(SecuredMethodCompiler compiler) {
+        this.compiler = compiler;
+    }
     
     // ============================================================
     // POINTCUT: Methods annotated with @Secured
@@ -36,32 +58,27 @@ public class SecurityAspect {
     // ============================================================
     @Before("securedMethod(secured)")
     public void checkSecurity(JoinPoint joinPoint, Secured secured) {
-        String methodName = joinPoint.getSignature().getName();
-        String[] requiredRoles = secured.roles();
-        
-        System.out.println(Prefixes.CORE_AOP + 
-            "[SECURITY] Checking access for: " + methodName);
-        System.out.println(Prefixes.CORE_AOP + 
-            "[SECURITY] Required roles: " + Arrays.toString(requiredRoles));
-        System.out.println(Prefixes.CORE_AOP + 
-            "[SECURITY] User roles: " + CURRENT_USER_ROLES);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || trustResolver.isAnonymous(authentication)) {
+            throw new AuthenticationCredentialsNotFoundException(
+                "No authenticated caller for " + joinPoint.getSignature().getName() + "()");
+        }
         
-        // Check if user has any required role
-        boolean hasAccess = false;
-        for (String role : requiredRoles) {
-            if (CURRENT_USER_ROLES.contains(role)) {
-                hasAccess = true;
-                break;
-            }
+        long required = compiler.requiredMask(((MethodSignature) joinPoint.getSignature()).getMethod(), secured);
+        if (required == 0L) {
+            return;
         }
         
-        if (!hasAccess) {
-            System.out.println(Prefixes.CORE_AOP + 
-                "[SECURITY] ACCESS DENIED!");
-            throw new SecurityException("Access denied. Required roles: " + Arrays.toString(requiredRoles));
+        if ((compiler.callerMask(authentication) & required) == 0L) {
+            String requiredRoles = Arrays.toString(secured.roles());
+            log.warn(Prefixes.CORE_AOP + "[SECURITY] ACCESS DENIED: {} -> {}() requires {}",
+                authentication.getName(), joinPoint.getSignature().getName(), requiredRoles);
+            throw new AccessDeniedException("Access denied. Required roles: " + requiredRoles);
         }
         
-        System.out.println(Prefixes.CORE_AOP + 
-            "[SECURITY] ACCESS GRANTED");
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.CORE_AOP + "[SECURITY] ACCESS GRANTED: {} -> {}()", authentication.getName(), joinPoint.getSignature().getName());
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.example.spring_cert_notes.aop;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency limit backed by a non-fair Semaphore.
+ */
+final class SemaphoreBulkhead {
+    
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    
+    SemaphoreBulkhead(String name, Bulkhead config) {
+        if (config.maxConcurrent() < 1) {
+            throw new IllegalArgumentException("@Bulkhead maxConcurrent must be >= 1");
+        }
+        this.name = name;
+        this.maxConcurrent = config.maxConcurrent();
+        this.maxWaitMillis = Math.max(0, config.maxWait());
+        this.permits = new Semaphore(maxConcurrent);
+    }
+    
+    String name() {
+        return name;
+    }
+    
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+    
+    int activeCalls() {
+        return maxConcurrent - permits.availablePermits();
+    }
+    
+    boolean tryAcquire() throws InterruptedException {
+        if (maxWaitMillis == 0) {
+            return permits.tryAcquire();
+        }
+        return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.spring_cert_notes.aop;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free circuit breaker over a count-based sliding window.
+ * <p>
+ * The window is a ring of the last {@code windowSize} outcomes. Each call
+ * claims a slot with one getAndIncrement, swaps its outcome in, and adjusts
+ * the running failure/recorded counts from the outcome it replaced, so the
+ * failure rate is read in O(1) without a lock. Under contention the counts
+ * can lag the ring by the calls in flight, which is fine for a threshold.
+ * <p>
+ * State changes are compareAndSet on {@link #state}, so only one thread
+ * performs each transition. Each state is an immutable {@link Phase}; a
+ * half-open phase carries its own probe counters, created before the phase
+ * is published, so no thread can see HALF_OPEN with the previous round's
+ * permits. Probes that report no outcome within openDuration re-open the
+ * breaker instead of holding it half-open forever.
+ * <p>
+ * A permit is the phase the call was admitted in, and the outcome is passed
+ * back with it. An outcome only counts if that phase is still current: a slow
+ * call admitted while CLOSED that finishes during HALF_OPEN is not a probe,
+ * and cannot close the breaker.
+ */
+final class SlidingWindowCircuitBreaker {
+    
+    enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final Class<? extends Throwable>[] ignore;
+    
+    /**
+     * since: nanoTime the phase began; permits/successes only in HALF_OPEN.
+     * Compared by identity: every transition publishes a new instance.
+     */
+    record Phase(State state, long since, AtomicInteger permits, AtomicInteger successes) {
+        
+        private static Phase closed() {
+            return new Phase(State.CLOSED, System.nanoTime(), null, null);
+        }
+    }
+    
+    private final AtomicReference<Phase> state = new AtomicReference<>(Phase.closed());
+    
+    private final AtomicIntegerArray slots;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    
+    SlidingWindowCircuitBreaker(String name, CircuitBreaker config) {
+        if (config.slidingWindowSize() < 1 || config.halfOpenProbes() < 1) {
+            throw new IllegalArgumentException("@CircuitBreaker window size and probes must be >= 1");
+        }
+        this.name = name;
+        this.windowSize = config.slidingWindowSize();
+        this.minimumCalls = Math.min(Math.max(1, config.minimumCalls()), windowSize);
+        this.failureRateThreshold = config.failureRateThreshold();
+        this.openDurationNanos = config.openDuration() * 1_000_000L;
+        this.halfOpenProbes = config.halfOpenProbes();
+        this.ignore = config.ignore();
+        this.slots = new AtomicIntegerArray(windowSize);
+    }
+    
+    String name() {
+        return name;
+    }
+    
+    State state() {
+        return state.get().state();
+    }
+    
+    /**
+     * Failure rate in percent over the current window, or -1 below minimumCalls.
+     */
+    float failureRate() {
+        int calls = recorded.get();
+        if (calls < minimumCalls) {
+            return -1f;
+        }
+        return failures.get() * 100f / calls;
+    }
+    
+    int bufferedCalls() {
+        return recorded.get();
+    }
+    
+    // ============================================================
+    // CALL PERMISSION
+    // ============================================================
+    /**
+     * The phase the call is admitted in (report the outcome with it), or null
+     * if the call is not permitted.
+     */
+    Phase tryAcquirePermission() {
+        while (true) {
+            Phase current = state.get();
+            long now = System.nanoTime();
+            switch (current.state()) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (now - current.since() < openDurationNanos) {
+                        return null;
+                    }
+                    Phase halfOpen = new Phase(State.HALF_OPEN, now,
+                        new AtomicInteger(halfOpenProbes), new AtomicInteger());
+                    // Lost the race: re-read and use whatever phase won
+                    state.compareAndSet(current, halfOpen);
+                    continue;
+                default:
+                    // HALF_OPEN: probes that never reported back re-open the breaker
+                    if (now - current.since() >= openDurationNanos) {
+                        transitionToOpen(current);
+                        return null;
+                    }
+                    return acquireProbe(current.permits()) ? current : null;
+            }
+        }
+    }
+    
+    private static boolean acquireProbe(AtomicInteger permits) {
+        int left;
+        do {
+            left = permits.get();
+            if (left <= 0) {
+                return false;
+            }
+        } while (!permits.compareAndSet(left, left - 1));
+        return true;
+    }
+    
+    // ============================================================
+    // OUTCOMES
+    // ============================================================
+    void onSuccess(Phase admittedIn) {
+        if (state.get() != admittedIn) {
+            return;  // Admitted in an earlier phase, no longer relevant
+        }
+        if (admittedIn.state() == State.HALF_OPEN) {
+            if (admittedIn.successes().incrementAndGet() >= halfOpenProbes
+                    && state.compareAndSet(admittedIn, Phase.closed())) {
+                resetWindow();
+            }
+            return;
+        }
+        record(SUCCESS);
+    }
+    
+    void onError(Phase admittedIn, Throwable ex) {
+        for (Class<? extends Throwable> type : ignore) {
+            if (type.isInstance(ex)) {
+                onSuccess(admittedIn);
+                return;
+            }
+        }
+        Phase current = state.get();
+        if (current != admittedIn) {
+            return;
+        }
+        if (current.state() == State.HALF_OPEN) {
+            transitionToOpen(current);
+            return;
+        }
+        record(FAILURE);
+        int calls = recorded.get();
+        if (calls >= minimumCalls
+                && failures.get() * 100L >= (long) failureRateThreshold * calls) {
+            transitionToOpen(current);
+        }
+    }
+    
+    private void record(int outcome) {
+        int index = Math.floorMod(cursor.getAndIncrement(), windowSize);
+        int previous = slots.getAndSet(index, outcome);
+        if (previous == EMPTY) {
+            recorded.incrementAndGet();
+        } else if (previous == FAILURE) {
+            failures.decrementAndGet();
+        }
+        if (outcome == FAILURE) {
+            failures.incrementAndGet();
+        }
+    }
+    
+    private void transitionToOpen(Phase from) {
+        state.compareAndSet(from, new Phase(State.OPEN, System.nanoTime(), null, null));
+    }
+    
+    private void resetWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            slots.set(i, EMPTY);
+        }
+        recorded.set(0);
+        failures.set(0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.spring_cert_notes.aop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket in its GCRA form: one atomic "theoretical arrival
+ * time" instead of a token count plus a refill timestamp.
+ * <p>
+ * Allows a burst of {@code capacity} acquisitions, then one per
+ * {@code refillPeriod}. The clock is a nanoTime source, replaceable in tests.
+ */
+final class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    
+    TokenBucket(int capacity, long refillPeriod, TimeUnit unit) {
+        this(capacity, refillPeriod, unit, System::nanoTime);
+    }
+    
+    TokenBucket(int capacity, long refillPeriod, TimeUnit unit, LongSupplier nanoClock) {
+        this.intervalNanos = Math.max(1, unit.toNanos(refillPeriod));
+        this.burstNanos = intervalNanos * Math.max(1, capacity);
+        this.nanoClock = nanoClock;
+    }
+    
+    boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long next = base + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.spring_cert_notes.aop.audit;
+
+/**
+ * Bounded rendering of arguments and results.
+ * <p>
+ * Values with a cheap, side-effect-free toString (strings, numbers,
+ * booleans, characters, enums) are rendered and truncated; anything else
+ * is rendered as its simple class name, so an entity or a large collection
+ * never gets walked on the request thread.
+ */
+public final class AuditArgs {
+    
+    private AuditArgs() {}
+    
+    public static String render(Object[] args, int maxValueLength, int maxTotalLength) {
+        if (args.length == 0) {
+            return "[]";
+        }
+        StringBuilder out = new StringBuilder(Math.min(maxTotalLength, 16 * args.length) + 2);
+        out.append('[');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            appendValue(out, args[i], maxValueLength);
+            if (out.length() >= maxTotalLength) {
+                out.setLength(maxTotalLength);
+                return out.append("...]").toString();
+            }
+        }
+        return out.append(']').toString();
+    }
+    
+    public static String render(Object value, int maxValueLength) {
+        StringBuilder out = new StringBuilder();
+        appendValue(out, value, maxValueLength);
+        return out.toString();
+    }
+    
+    private static void appendValue(StringBuilder out, Object value, int maxValueLength) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?>) {
+            String text = value.toString();
+            if (text.length() > maxValueLength) {
+                out.append(text, 0, maxValueLength).append("...");
+            } else {
+                out.append(text);
+            }
+        } else {
+            out.append('<').append(value.getClass().getSimpleName()).append('>');
+        }
+    }
+}
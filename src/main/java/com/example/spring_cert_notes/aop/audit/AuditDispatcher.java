@@ -0,0 +1,158 @@
+package com.example.spring_cert_notes.aop.audit;
+
+import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hands audit events from the request thread to the configured sinks.
+ * <p>
+ * The caller only does a non-blocking offer into a bounded queue; a daemon
+ * thread drains whatever is queued (up to batch-size) and writes that batch
+ * to every active sink. A full queue drops the event and counts it - audit
+ * must never stall the audited call.
+ * <p>
+ * Active sinks: aop.audit.sinks (comma-separated names, default "memory";
+ * recent events are readable at /actuator/aopaudit).
+ * <p>
+ * Metrics: aop.audit.queue.depth, aop.audit.dropped, aop.audit.sink.failures{sink}
+ */
+@Component
+public class AuditDispatcher {
+    
+    private static final Logger log = LoggerFactory.getLogger(AuditDispatcher.class);
+    
+    private final List<AuditSink> availableSinks;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${aop.audit.sinks:memory}")
+    private String[] sinkNames;
+    
+    @Value("${aop.audit.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${aop.audit.batch-size:200}")
+    private int batchSize;
+    
+    // How long an idle dispatcher waits before re-checking for shutdown
+    @Value("${aop.audit.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    
+    private final List<AuditSink> sinks = new ArrayList<>();
+    private final List<Counter> sinkFailures = new ArrayList<>();
+    private BlockingQueue<AuditEvent> queue;
+    private Counter droppedCounter;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+    
+    public AuditDispatcher(List<AuditSink> availableSinks, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.availableSinks = availableSinks;
+        // Plain AopConfig context has no registry - counters still work locally
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+    
+    @PostConstruct
+    void start() {
+        Set<String> selected = Arrays.stream(sinkNames).map(String::trim).collect(Collectors.toSet());
+        for (AuditSink sink : availableSinks) {
+            if (!selected.contains(sink.name())) {
+                continue;
+            }
+            if (sink instanceof JdbcAuditSink jdbc && !jdbc.isAvailable()) {
+                log.warn(Prefixes.CORE_AOP + "[AUDIT] Sink 'jdbc' requested but AsyncAuditLogWriter is missing or disabled, skipped");
+                continue;
+            }
+            sinks.add(sink);
+            sinkFailures.add(Counter.builder("aop.audit.sink.failures")
+                .description("Audit batches a sink failed to write")
+                .tag("sink", sink.name())
+                .register(meterRegistry));
+        }
+        
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("aop.audit.queue.depth", queue, BlockingQueue::size)
+            .description("Audit events waiting for the dispatcher")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("aop.audit.dropped")
+            .description("Audit events dropped because the queue was full")
+            .register(meterRegistry);
+        
+        running = true;
+        dispatcherThread = new Thread(this::dispatchLoop, "audit-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        log.info(Prefixes.CORE_AOP + "[AUDIT] Dispatcher started, sinks={}", sinks.stream().map(AuditSink::name).toList());
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Loop keeps draining until the queue is empty
+        running = false;
+        dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    
+    // ============================================================
+    // PRODUCER SIDE (caller thread)
+    // ============================================================
+    
+    public void submit(AuditEvent event) {
+        if (!running || !queue.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+    
+    // ============================================================
+    // CONSUMER SIDE (dispatcher thread)
+    // ============================================================
+    
+    private void dispatchLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void dispatch(List<AuditEvent> batch) {
+        // One failing sink must not starve the others
+        for (int i = 0; i < sinks.size(); i++) {
+            try {
+                sinks.get(i).write(batch);
+            } catch (Exception e) {
+                sinkFailures.get(i).increment();
+                log.warn(Prefixes.CORE_AOP + "[AUDIT] Sink '{}' failed on {} events: {}", sinks.get(i).name(), batch.size(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.spring_cert_notes.aop.audit;
+
+/**
+ * One audited call, captured on the caller thread.
+ * <p>
+ * Only immutable, already-bounded strings: the sinks run on another thread
+ * and must not touch the live argument objects.
+ */
+public record AuditEvent(long timestamp, String principal, String action, String method,
+                         String args, String result) {
+    
+    /**
+     * Compact one-line form used by the JDBC status column and the file sink
+     */
+    public String summary() {
+        return "user=" + principal + " method=" + method + " args=" + args + " result=" + result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.spring_cert_notes.aop.audit;
+
+import java.util.List;
+
+/**
+ * Destination for audit events. Called only from the dispatcher thread,
+ * with batches in arrival order, so implementations need no locking of
+ * their own for writes.
+ */
+public interface AuditSink {
+    
+    /**
+     * Name used in aop.audit.sinks (e.g. "memory", "jdbc", "file")
+     */
+    String name();
+    
+    void write(List<AuditEvent> batch) throws Exception;
+}
@@ -0,0 +1,55 @@
+package com.example.spring_cert_notes.aop.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the last N events in memory; older ones are overwritten.
+ * Default sink - useful for demos, tests and a quick "what just happened".
+ */
+@Component
+public class RingBufferAuditSink implements AuditSink {
+    
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final AtomicLong written = new AtomicLong();
+    
+    public RingBufferAuditSink(@Value("${aop.audit.memory.capacity:1024}") int capacity) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+    
+    @Override
+    public String name() {
+        return "memory";
+    }
+    
+    @Override
+    public void write(List<AuditEvent> batch) {
+        for (AuditEvent event : batch) {
+            long sequence = written.get();
+            slots.set((int) (sequence % slots.length()), event);
+            // Single writer (dispatcher thread); readers see the count after the slot
+            written.set(sequence + 1);
+        }
+    }
+    
+    /**
+     * Most recent events, oldest first
+     */
+    public List<AuditEvent> recent() {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        List<AuditEvent> events = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            AuditEvent event = slots.get((int) (i % slots.length()));
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+}
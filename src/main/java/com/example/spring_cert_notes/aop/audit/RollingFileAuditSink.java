@@ -0,0 +1,96 @@
+package com.example.spring_cert_notes.aop.audit;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appends one line per event to a file, rolling by size:
+ * audit.log → audit.log.1 → ... → audit.log.{maxHistory} (oldest dropped).
+ * <p>
+ * Written only from the dispatcher thread; flushed once per batch.
+ */
+@Component
+public class RollingFileAuditSink implements AuditSink {
+    
+    private final Path file;
+    private final long maxSizeBytes;
+    private final int maxHistory;
+    
+    private BufferedWriter writer;
+    private long size;
+    
+    public RollingFileAuditSink(@Value("${aop.audit.file.path:logs/audit.log}") String path,
+                                @Value("${aop.audit.file.max-size-bytes:10485760}") long maxSizeBytes,
+                                @Value("${aop.audit.file.max-history:5}") int maxHistory) {
+        this.file = Path.of(path);
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxHistory = Math.max(1, maxHistory);
+    }
+    
+    @Override
+    public String name() {
+        return "file";
+    }
+    
+    @Override
+    public void write(List<AuditEvent> batch) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        for (AuditEvent event : batch) {
+            String line = Instant.ofEpochMilli(event.timestamp()) + " " + event.action() + " " + event.summary();
+            writer.write(line);
+            writer.newLine();
+            size += line.length() + 1;  // approximate, ASCII-dominated
+            if (size >= maxSizeBytes) {
+                roll();
+            }
+        }
+        writer.flush();
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+    
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+    
+    private void roll() throws IOException {
+        close();
+        Files.deleteIfExists(sibling(maxHistory));
+        for (int i = maxHistory - 1; i >= 1; i--) {
+            Path from = sibling(i);
+            if (Files.exists(from)) {
+                Files.move(from, sibling(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, sibling(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+    
+    private Path sibling(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
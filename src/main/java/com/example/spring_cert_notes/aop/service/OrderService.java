@@ -2,10 +2,15 @@ package com.example.spring_cert_notes.aop.service;
 
 import com.example.spring_cert_notes.Prefixes;
 import com.example.spring_cert_notes.aop.Auditable;
+import com.example.spring_cert_notes.aop.Cached;
+import com.example.spring_cert_notes.aop.CircuitBreaker;
+import com.example.spring_cert_notes.aop.EvictCached;
 import com.example.spring_cert_notes.aop.Retry;
 import com.example.spring_cert_notes.aop.Secured;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Sample service to demonstrate AOP aspects
  */
@@ -13,6 +18,7 @@ import org.springframework.stereotype.Service;
 public class OrderService {
     
     private int failCount = 0;
+    private int asyncFailCount = 0;
     
     @Auditable(action = "CREATE_ORDER")
     @Secured(roles = {"USER", "ADMIN"})
@@ -31,11 +37,13 @@ public class OrderService {
     }
     
     @Secured(roles = {"ADMIN"})
+    @EvictCached("orderStatus")
     public void cancelOrder(String orderId) {
         System.out.println(Prefixes.CORE_BEAN + 
             "OrderService: Cancelling order " + orderId);
     }
     
+    @Cached(name = "orderStatus", ttl = 5000)
     public String getOrderStatus(String orderId) {
         System.out.println(Prefixes.CORE_BEAN + 
             "OrderService: Getting status for " + orderId);
@@ -43,6 +51,7 @@ public class OrderService {
     }
     
     @Retry(maxAttempts = 3, delay = 500)
+    @CircuitBreaker(name = "paymentGateway")
     public void processPayment(String orderId) {
         failCount++;
         System.out.println(Prefixes.CORE_BEAN + 
@@ -58,6 +67,22 @@ public class OrderService {
         failCount = 0;  // Reset for next demo
     }
     
+    // Async variant: re-attempts are scheduled, the caller's thread is not held during backoff
+    @Retry(maxAttempts = 4, delay = 200, multiplier = 2.0, maxDelay = 1000, jitter = 0.2,
+           noRetryOn = IllegalArgumentException.class)
+    @CircuitBreaker(name = "paymentGateway")
+    public CompletableFuture<String> processPaymentAsync(String orderId) {
+        asyncFailCount++;
+        System.out.println(Prefixes.CORE_BEAN + 
+            "OrderService: Async payment for " + orderId + " (attempt " + asyncFailCount + ")");
+        
+        if (asyncFailCount < 3) {
+            return CompletableFuture.failedFuture(new RuntimeException("Payment gateway timeout"));
+        }
+        asyncFailCount = 0;  // Reset for next demo
+        return CompletableFuture.completedFuture("PAID-" + orderId);
+    }
+    
     public void failingMethod() {
         System.out.println(Prefixes.CORE_BEAN + 
             "OrderService: About to throw exception...");
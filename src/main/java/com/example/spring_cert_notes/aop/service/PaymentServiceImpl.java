@@ -2,6 +2,8 @@ package com.example.spring_cert_notes.aop.service;
 
 import com.example.spring_cert_notes.Prefixes;
 import com.example.spring_cert_notes.aop.Auditable;
+import com.example.spring_cert_notes.aop.Bulkhead;
+import com.example.spring_cert_notes.aop.Cached;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,6 +14,7 @@ public class PaymentServiceImpl implements PaymentService {
     
     @Override
     @Auditable(action = "PROCESS_PAYMENT")
+    @Bulkhead(maxConcurrent = 5, maxWait = 100)
     public void processPayment(String orderId, double amount) {
         System.out.println(Prefixes.CORE_BEAN + 
             "PaymentService: Processing $" + amount + " for order " + orderId);
@@ -24,6 +27,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
     
     @Override
+    @Cached(name = "paymentStatus", ttl = 5000)
     public String getPaymentStatus(String paymentId) {
         System.out.println(Prefixes.CORE_BEAN + 
             "PaymentService: Getting status for payment " + paymentId);
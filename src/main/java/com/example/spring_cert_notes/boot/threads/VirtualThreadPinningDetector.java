@@ -0,0 +1,114 @@
+package com.example.spring_cert_notes.boot.threads;
+
+import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * PINNING DETECTOR cho virtual threads
+ * 
+ * Virtual thread bị "pin" vào carrier thread khi block bên trong synchronized
+ * (hoặc native frame) → carrier không thể chạy virtual thread khác.
+ * 
+ * JDK 21 phát JFR event jdk.VirtualThreadPinned khi pin lâu hơn threshold.
+ * Detector stream event này trong process (không cần file .jfr):
+ * - Đếm MỌI event vào metric jvm.threads.virtual.pinned
+ * - Log (WARN) frame gây pin để tìm synchronized cần đổi sang ReentrantLock,
+ *   tối đa 1 lần mỗi log-interval; các event bị bỏ qua được cộng dồn và báo
+ *   ở lần log kế tiếp → pinning storm không làm ngập log
+ * 
+ * Ngưỡng: app.virtual-threads.pinned-threshold-ms (mặc định 20ms)
+ * Throttle: app.virtual-threads.pinned-log-interval-ms (mặc định 10000ms)
+ */
+@Component
+@Profile("virtual")
+public class VirtualThreadPinningDetector {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningDetector.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 5;
+    
+    private final Counter pinnedCounter;
+    
+    @Value("${app.virtual-threads.pinned-threshold-ms:20}")
+    private long thresholdMs;
+    
+    @Value("${app.virtual-threads.pinned-log-interval-ms:10000}")
+    private long logIntervalMs;
+    
+    private RecordingStream stream;
+    
+    // Chỉ truy cập từ thread của RecordingStream (event được dispatch tuần tự)
+    private long nextLogAtNanos = System.nanoTime();
+    private long suppressed;
+    
+    public VirtualThreadPinningDetector(MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier longer than the threshold")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        // Event chỉ tồn tại từ Java 21
+        if (Runtime.version().feature() < VirtualThreadsConfig.MIN_JAVA_VERSION) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+            .withThreshold(Duration.ofMillis(thresholdMs))
+            .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        
+        long now = System.nanoTime();
+        if (!log.isWarnEnabled() || now - nextLogAtNanos < 0) {
+            suppressed++;
+            return;
+        }
+        nextLogAtNanos = now + logIntervalMs * 1_000_000L;
+        
+        StringBuilder message = new StringBuilder(Prefixes.BOOT_THREADS).append("Virtual thread pinned for ")
+            .append(event.getDuration().toMillis()).append("ms");
+        if (suppressed > 0) {
+            message.append(" (").append(suppressed).append(" more since last report)");
+            suppressed = 0;
+        }
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(MAX_FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                message.append("\n    at ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+            }
+        }
+        log.warn(message.toString());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.spring_cert_notes.boot.threads;
+
+import com.example.spring_cert_notes.Prefixes;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * VIRTUAL THREADS PROFILE (Java 21+)
+ * 
+ * Kích hoạt: --spring.profiles.active=virtual (xem application-virtual.properties)
+ * Chạy thử: VirtualThreadsDemo.main() - Boot app nhỏ bật sẵn profile "virtual"
+ * 
+ * spring.threads.virtual.enabled=true → Spring Boot tự cấu hình:
+ * - Tomcat: mỗi request chạy trên 1 virtual thread (MVC + /actuator/health)
+ * - applicationTaskExecutor: SimpleAsyncTaskExecutor dùng virtual threads (@Async)
+ * - Scheduling: @Scheduled cũng chạy trên virtual threads
+ * 
+ * Thread pool tự tạo không đi theo property này, phải tự đọc nó:
+ * - /actuator/health: request trên virtual thread, nhưng các check chạy trên executor
+ *   của ParallelHealthEvaluator → ParallelHealthPostProcessor dùng virtual threads khi bật
+ * - Poller của ExternalServiceHealthIndicator cũng vậy
+ * 
+ * Code blocking (Thread.sleep, HttpURLConnection, JDBC) sẽ unmount virtual thread
+ * thay vì giữ 1 platform thread → số request in-flight không còn bị giới hạn bởi
+ * server.tomcat.threads.max (mặc định 200).
+ * 
+ * Trên Java 17 property bị bỏ qua → app chạy bình thường với platform threads.
+ */
+@Configuration
+@Profile("virtual")
+@EnableAsync
+public class VirtualThreadsConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+    
+    static final int MIN_JAVA_VERSION = 21;
+    
+    @PostConstruct
+    void checkRuntime() {
+        int feature = Runtime.version().feature();
+        if (feature < MIN_JAVA_VERSION) {
+            log.warn("{}Java {} detected - virtual threads need Java {}+, using platform threads",
+                Prefixes.BOOT_THREADS, feature, MIN_JAVA_VERSION);
+        } else {
+            log.info("{}Enabled on Java {}", Prefixes.BOOT_THREADS, feature);
+        }
+    }
+}
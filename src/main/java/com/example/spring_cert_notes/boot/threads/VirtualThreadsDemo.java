@@ -0,0 +1,92 @@
+package com.example.spring_cert_notes.boot.threads;
+
+import com.example.spring_cert_notes.Prefixes;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.Async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Demo Runner cho VIRTUAL THREADS PROFILE
+ *
+ * Boot app tối giản (không web, không DataSource) bật sẵn profile "virtual":
+ * - application-virtual.properties được nạp → spring.threads.virtual.enabled=true
+ * - TaskExecutionAutoConfiguration → applicationTaskExecutor chạy @Async trên virtual threads
+ * - VirtualThreadPinningDetector → 1 task cố ý block trong synchronized để tạo pinning event
+ *
+ * Trên Java 17: @Async chạy trên platform threads, detector không bật (chỉ in cảnh báo).
+ */
+@SpringBootConfiguration
+@ImportAutoConfiguration({
+    TaskExecutionAutoConfiguration.class,
+    MetricsAutoConfiguration.class,
+    CompositeMeterRegistryAutoConfiguration.class,
+    SimpleMetricsExportAutoConfiguration.class
+})
+@Import({VirtualThreadsConfig.class, VirtualThreadPinningDetector.class, VirtualThreadsDemo.BlockingWorker.class})
+public class VirtualThreadsDemo {
+
+    private static final int TASKS = 5;
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VirtualThreadsDemo.class)
+                .profiles("virtual")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            BlockingWorker worker = context.getBean(BlockingWorker.class);
+
+            System.out.println("\n" + Prefixes.BOOT_THREADS + "=== VIRTUAL THREADS DEMO ===\n");
+
+            System.out.println(Prefixes.BOOT_THREADS + "1. @Async blocking tasks:");
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 1; i <= TASKS; i++) {
+                results.add(worker.sleep(i));
+            }
+            for (CompletableFuture<String> result : results) {
+                System.out.println("   " + result.get());
+            }
+
+            System.out.println("\n" + Prefixes.BOOT_THREADS + "2. Pinning (sleep inside synchronized):");
+            System.out.println("   " + worker.sleepWhilePinned().get());
+            // JFR stream flush khoảng 1s/lần → chờ detector nhận event trước khi đóng context
+            Thread.sleep(1500);
+
+            System.out.println("\n" + Prefixes.BOOT_THREADS + "=== DEMO COMPLETE ===\n");
+        }
+    }
+
+    static class BlockingWorker {
+
+        private final Object monitor = new Object();
+
+        @Async
+        public CompletableFuture<String> sleep(int task) throws InterruptedException {
+            Thread.sleep(100);
+            return CompletableFuture.completedFuture("Task " + task + " on " + describe(Thread.currentThread()));
+        }
+
+        @Async
+        public CompletableFuture<String> sleepWhilePinned() throws InterruptedException {
+            synchronized (monitor) {
+                Thread.sleep(50);
+            }
+            return CompletableFuture.completedFuture("Pinned task on " + describe(Thread.currentThread()));
+        }
+
+        private static String describe(Thread thread) {
+            // Thread.isVirtual() chỉ có từ Java 21 → đọc qua toString() để vẫn compile trên 17
+            return thread.toString().startsWith("VirtualThread") ? "virtual thread " + thread : "platform thread " + thread.getName();
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.spring_cert_notes.data.jdbc;
 
 import com.example.spring_cert_notes.Prefixes;
+import com.example.spring_cert_notes.aop.Cached;
+import com.example.spring_cert_notes.aop.EvictCached;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 /**
  * ACCOUNT SERVICE - Transaction Propagation Examples
@@ -14,15 +17,21 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class AccountService {
     
+    static final String BALANCE_CACHE = "balance";
+    
     @Autowired
     private UserDao userDao;
     
     @Autowired
     private AuditLogService auditLogService;
     
+    @Autowired
+    private AsyncAuditLogWriter asyncAuditLogWriter;
+    
     // ============================================================
     // 1. REQUIRED (default) - Join existing or create new
     // ============================================================
+    @EvictCached(value = BALANCE_CACHE, allEntries = true)
     @Transactional(propagation = Propagation.REQUIRED)
     public void transferRequired(Long fromId, Long toId, double amount) {
         System.out.println(Prefixes.DATA_TX + "[REQUIRED] Starting transfer");
@@ -36,6 +45,7 @@ public class AccountService {
     // ============================================================
     // 2. REQUIRES_NEW - Always create new, suspend current
     // ============================================================
+    @EvictCached(value = BALANCE_CACHE, allEntries = true)
     @Transactional(propagation = Propagation.REQUIRED)
     public void transferWithAudit(Long fromId, Long toId, double amount) {
         System.out.println(Prefixes.DATA_TX + "[REQUIRED] Starting transfer with audit");
@@ -45,7 +55,7 @@ public class AccountService {
             credit(toId, amount);
             
             // This runs in NEW transaction - commits even if outer fails
-            auditLogService.logTransfer(fromId, toId, amount, "SUCCESS");
+            auditTransfer(fromId, toId, amount, "SUCCESS");
             
             // Simulate failure after audit
             if (amount > 1000) {
@@ -53,14 +63,26 @@ public class AccountService {
             }
         } catch (Exception e) {
             // Audit log is ALREADY COMMITTED (REQUIRES_NEW)
-            auditLogService.logTransfer(fromId, toId, amount, "FAILED: " + e.getMessage());
+            auditTransfer(fromId, toId, amount, "FAILED: " + e.getMessage());
             throw e;
         }
     }
     
+    // Audit goes to the async batch writer when enabled (app.audit.async.enabled),
+    // otherwise to the REQUIRES_NEW AuditLogService
+    private void auditTransfer(Long fromId, Long toId, double amount, String status) {
+        if (asyncAuditLogWriter.isEnabled()) {
+            asyncAuditLogWriter.awaitIfDurable(asyncAuditLogWriter.logTransfer(fromId, toId, amount, status));
+        } else {
+            auditLogService.logTransfer(fromId, toId, amount, status);
+        }
+    }
+    
     // ============================================================
     // 3. SUPPORTS - Join if exists, non-transactional otherwise
     // ============================================================
+    // Short TTL bounds staleness from writes that bypass this service (e.g. UserDao directly)
+    @Cached(name = BALANCE_CACHE, ttl = 2000, maxSize = 10000)
     @Transactional(propagation = Propagation.SUPPORTS)
     public double getBalance(Long userId) {
         System.out.println(Prefixes.DATA_TX + "[SUPPORTS] Getting balance");
@@ -76,13 +98,15 @@ public class AccountService {
     public void generateReport() {
         System.out.println(Prefixes.DATA_TX + "[NOT_SUPPORTED] Generating report (no transaction)");
         // Long-running read operation that doesn't need transaction
-        userDao.findAll().forEach(u -> 
+        // Rows are streamed from the cursor - memory stays constant regardless of table size
+        userDao.forEachUser(u -> 
             System.out.println(Prefixes.DATA_TX + "  User: " + u.getName() + " - $" + u.getBalance()));
     }
     
     // ============================================================
     // 5. MANDATORY - Must have existing transaction
     // ============================================================
+    @EvictCached(value = BALANCE_CACHE, keyArgs = 0)
     @Transactional(propagation = Propagation.MANDATORY)
     public void debit(Long userId, double amount) {
         System.out.println(Prefixes.DATA_TX + "[MANDATORY] Debiting $" + amount + " from user " + userId);
@@ -109,6 +133,7 @@ public class AccountService {
     // ============================================================
     // 7. NESTED - Nested transaction with savepoint
     // ============================================================
+    @EvictCached(value = BALANCE_CACHE, allEntries = true)
     @Transactional(propagation = Propagation.REQUIRED)
     public void transferWithBonus(Long fromId, Long toId, double amount) {
         System.out.println(Prefixes.DATA_TX + "[REQUIRED] Starting transfer with bonus");
@@ -127,6 +152,7 @@ public class AccountService {
         System.out.println(Prefixes.DATA_TX + "[REQUIRED] Transfer completed");
     }
     
+    @EvictCached(value = BALANCE_CACHE, keyArgs = 0)
     @Transactional(propagation = Propagation.NESTED)
     public void addBonus(Long userId, double bonus) {
         System.out.println(Prefixes.DATA_TX + "[NESTED] Adding bonus $" + bonus + " to user " + userId);
@@ -141,7 +167,31 @@ public class AccountService {
         userDao.updateBalance(userId, user.getBalance() + bonus);
     }
     
+    // ============================================================
+    // 8. ATOMIC TRANSFER - conditional UPDATEs, one round trip
+    // ============================================================
+    // debit()/credit() read the balance then write the computed value:
+    // two concurrent transfers can both read the same balance → lost update.
+    // Here the database applies relative deltas under row locks instead.
+    @EvictCached(value = BALANCE_CACHE, allEntries = true)
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean transferAtomic(Long fromId, Long toId, double amount) {
+        if (amount <= 0 || fromId.equals(toId)) {
+            throw new IllegalArgumentException("Invalid transfer: " + fromId + " -> " + toId + ", $" + amount);
+        }
+        System.out.println(Prefixes.DATA_TX + "[REQUIRED] Atomic transfer $" + amount + " from " + fromId + " to " + toId);
+        
+        if (!userDao.transferBalance(fromId, toId, amount)) {
+            // Insufficient balance or unknown user: undo the leg that may have applied
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            System.out.println(Prefixes.DATA_TX + "[REQUIRED] Atomic transfer rejected, rolled back");
+            return false;
+        }
+        return true;
+    }
+    
     // Helper method
+    @EvictCached(value = BALANCE_CACHE, keyArgs = 0)
     @Transactional(propagation = Propagation.MANDATORY)
     public void credit(Long userId, double amount) {
         System.out.println(Prefixes.DATA_TX + "[MANDATORY] Crediting $" + amount + " to user " + userId);
@@ -0,0 +1,312 @@
+package com.example.spring_cert_notes.data.jdbc;
+
+import com.example.spring_cert_notes.Prefixes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ASYNC AUDIT LOG WRITER - optional alternative to AuditLogService
+ * <p>
+ * The only background writer into audit_log: the aop JdbcAuditSink also
+ * goes through it.
+ * <p>
+ * AuditLogService opens a REQUIRES_NEW transaction (second connection + commit)
+ * for every single audit row. This writer instead:
+ * - puts events on a bounded in-memory queue (caller returns immediately)
+ * - a background thread flushes them with batchUpdate, in ONE transaction per batch,
+ *   when batch-size is reached or flush-interval has passed since the first queued event
+ * <p>
+ * Durability:
+ * - FIRE_AND_FORGET: queue full → event is dropped and counted
+ * - WAIT_FOR_FLUSH:  queue full → caller blocks up to offer-timeout (backpressure);
+ *                    the returned future completes once the batch is committed,
+ *                    and the caller waits for it at most await-timeout
+ * Events still queued when the writer stops are failed, so no caller waits forever.
+ * <p>
+ * Properties (prefix app.audit.async):
+ * enabled=false, queue-capacity=10000, batch-size=100, flush-interval-ms=200,
+ * durability=FIRE_AND_FORGET, offer-timeout-ms=1000, await-timeout-ms=5000
+ * <p>
+ * Metrics: audit.async.queue.depth, audit.async.dropped, audit.async.written,
+ * audit.async.failed, audit.async.flush
+ */
+@Component
+public class AsyncAuditLogWriter {
+    
+    public enum Durability { FIRE_AND_FORGET, WAIT_FOR_FLUSH }
+    
+    private static final String SQL =
+        "INSERT INTO audit_log (action, from_user, to_user, amount, status, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    // Immutable event captured on the caller thread
+    private record AuditEvent(String action, Long fromUser, Long toUser, Double amount,
+                              String status, Timestamp createdAt, CompletableFuture<Void> flushed) {}
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${app.audit.async.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.audit.async.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${app.audit.async.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.audit.async.flush-interval-ms:200}")
+    private long flushIntervalMs;
+    
+    @Value("${app.audit.async.durability:FIRE_AND_FORGET}")
+    private Durability durability;
+    
+    @Value("${app.audit.async.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+    
+    @Value("${app.audit.async.await-timeout-ms:5000}")
+    private long awaitTimeoutMs;
+    
+    private BlockingQueue<AuditEvent> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+    
+    public AsyncAuditLogWriter(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Plain JdbcConfig context has no registry - metrics still work locally
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        
+        Gauge.builder("audit.async.queue.depth", queue, BlockingQueue::size)
+            .description("Audit events waiting to be flushed")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("audit.async.dropped")
+            .description("Audit events dropped because the queue was full")
+            .register(meterRegistry);
+        writtenCounter = Counter.builder("audit.async.written")
+            .description("Audit events committed to audit_log")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("audit.async.failed")
+            .description("Audit events lost because their batch failed")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("audit.async.flush")
+            .description("Time to write and commit one batch")
+            .register(meterRegistry);
+        
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        System.out.println(Prefixes.DATA_TX + "[ASYNC-AUDIT] Writer started (batch=" + batchSize
+            + ", interval=" + flushIntervalMs + "ms, durability=" + durability + ")");
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // Loop keeps draining until the queue is empty
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        failPending();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Durability getDurability() {
+        return durability;
+    }
+    
+    // ============================================================
+    // PRODUCER SIDE (caller thread)
+    // ============================================================
+    
+    public CompletableFuture<Void> logTransfer(Long fromId, Long toId, double amount, String status) {
+        return enqueue("TRANSFER", fromId, toId, amount, status, new Timestamp(System.currentTimeMillis()));
+    }
+    
+    /**
+     * Non-transfer row (action + status only), e.g. events of the aop JdbcAuditSink
+     */
+    public CompletableFuture<Void> logEvent(String action, String status, long timestampMillis) {
+        return enqueue(action, null, null, null, status, new Timestamp(timestampMillis));
+    }
+    
+    /**
+     * Blocks only in WAIT_FOR_FLUSH mode, until the event's batch is committed
+     * or await-timeout has passed
+     */
+    public void awaitIfDurable(CompletableFuture<Void> flushed) {
+        if (durability != Durability.WAIT_FOR_FLUSH) {
+            return;
+        }
+        try {
+            flushed.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Audit event not committed within " + awaitTimeoutMs + "ms", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit event not committed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for audit flush", e);
+        }
+    }
+    
+    private CompletableFuture<Void> enqueue(String action, Long fromUser, Long toUser, Double amount,
+                                            String status, Timestamp createdAt) {
+        if (!enabled || !running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Async audit writer is not running"));
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        AuditEvent event = new AuditEvent(action, fromUser, toUser, amount, status, createdAt, flushed);
+        
+        boolean accepted;
+        if (durability == Durability.WAIT_FOR_FLUSH) {
+            try {
+                accepted = queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(event);
+        }
+        
+        if (!accepted) {
+            droppedCounter.increment();
+            flushed.completeExceptionally(new IllegalStateException("Audit queue full, event dropped"));
+        } else if (!running && queue.remove(event)) {
+            // Writer stopped between the running check and the offer; nobody will flush it
+            flushed.completeExceptionally(new IllegalStateException("Async audit writer is not running"));
+        }
+        return flushed;
+    }
+    
+    private void failPending() {
+        List<AuditEvent> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        if (!pending.isEmpty()) {
+            failedCounter.increment(pending.size());
+            IllegalStateException stopped = new IllegalStateException("Async audit writer stopped before flush");
+            pending.forEach(event -> event.flushed().completeExceptionally(stopped));
+        }
+    }
+    
+    // ============================================================
+    // CONSUMER SIDE (writer thread)
+    // ============================================================
+    
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Size trigger OR time trigger, whichever comes first
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    AuditEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<AuditEvent> batch) {
+        try {
+            flushTimer.record(() -> batchTransaction.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(SQL, batch, batch.size(), this::bind)));
+            writtenCounter.increment(batch.size());
+            batch.forEach(event -> event.flushed().complete(null));
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            System.out.println(Prefixes.DATA_TX + "[ASYNC-AUDIT] Batch of " + batch.size() + " failed: " + e.getMessage());
+            batch.forEach(event -> event.flushed().completeExceptionally(e));
+        }
+    }
+    
+    private void bind(PreparedStatement ps, AuditEvent event) throws SQLException {
+        ps.setString(1, event.action());
+        setNullableLong(ps, 2, event.fromUser());
+        setNullableLong(ps, 3, event.toUser());
+        if (event.amount() != null) {
+            ps.setDouble(4, event.amount());
+        } else {
+            ps.setNull(4, Types.DECIMAL);
+        }
+        ps.setString(5, event.status());
+        ps.setTimestamp(6, event.createdAt());
+    }
+    
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
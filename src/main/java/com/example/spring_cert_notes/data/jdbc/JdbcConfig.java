@@ -1,8 +1,11 @@
 package com.example.spring_cert_notes.data.jdbc;
 
+import com.example.spring_cert_notes.aop.CachedAspect;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -20,10 +23,13 @@ import javax.sql.DataSource;
  * - JdbcTemplate: Simplifies JDBC operations
  * - PlatformTransactionManager: Manages transactions
  * - @EnableTransactionManagement: Enables @Transactional
+ * - CachedAspect: @Cached / @EvictCached on AccountService balances
  */
 @Configuration
 @ComponentScan(basePackages = "com.example.spring_cert_notes.data.jdbc")
 @EnableTransactionManagement
+@EnableAspectJAutoProxy
+@Import(CachedAspect.class)
 public class JdbcConfig {
     
     @Bean
@@ -1,9 +1,13 @@
 package com.example.spring_cert_notes.data.jdbc;
 
 import com.example.spring_cert_notes.Prefixes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -15,6 +19,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * USER DAO - JdbcTemplate Examples
@@ -26,15 +32,23 @@ import java.util.Optional;
  * - Lambda RowMapper
  * - NamedParameterJdbcTemplate
  * - SimpleJdbcInsert
+ * - queryForStream() / RowCallbackHandler for constant-memory reads
  */
 @Repository
 public class UserDao {
     
+    private static final Logger log = LoggerFactory.getLogger(UserDao.class);
+    
+    static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+    
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedTemplate;
     private final SimpleJdbcInsert simpleInsert;
     private final UserRowMapper userRowMapper;
     
+    // Separate template so the fetch size only applies to streaming reads
+    private final JdbcTemplate streamingTemplate;
+    
     // Lambda RowMapper (inline)
     private final RowMapper<User> lambdaMapper = (rs, rowNum) -> 
         new User(rs.getLong("id"), rs.getString("name"), 
@@ -48,6 +62,17 @@ public class UserDao {
             .withTableName("users")
             .usingGeneratedKeyColumns("id");
         this.userRowMapper = userRowMapper;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(DEFAULT_STREAM_FETCH_SIZE);
+    }
+    
+    /**
+     * Rows fetched per driver round trip when streaming.
+     * Larger = fewer round trips, smaller = less memory per batch.
+     */
+    @Autowired
+    public void setStreamFetchSize(@Value("${app.jdbc.stream-fetch-size:" + DEFAULT_STREAM_FETCH_SIZE + "}") int fetchSize) {
+        this.streamingTemplate.setFetchSize(fetchSize);
     }
     
     // ============================================================
@@ -55,19 +80,52 @@ public class UserDao {
     // ============================================================
     
     public List<User> findAll() {
-        System.out.println(Prefixes.DATA_JDBC + "Finding all users");
+        log.debug(Prefixes.DATA_JDBC + "Finding all users");
         String sql = "SELECT * FROM users";
         return jdbcTemplate.query(sql, userRowMapper);
     }
     
     public List<User> findAllWithLambda() {
-        System.out.println(Prefixes.DATA_JDBC + "Finding all users (lambda mapper)");
+        log.debug(Prefixes.DATA_JDBC + "Finding all users (lambda mapper)");
         String sql = "SELECT * FROM users";
         return jdbcTemplate.query(sql, lambdaMapper);
     }
     
+    // ============================================================
+    // STREAMING METHODS (constant memory, no List<User>)
+    // ============================================================
+    
+    /**
+     * Streams users row by row from an open cursor.
+     * <p>
+     * The Stream holds a Connection + ResultSet until closed,
+     * so callers MUST use try-with-resources.
+     */
+    public Stream<User> streamAll() {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Streaming all users (fetchSize={})", streamingTemplate.getFetchSize());
+        }
+        String sql = "SELECT * FROM users";
+        return streamingTemplate.queryForStream(sql, userRowMapper);
+    }
+    
+    /**
+     * Callback variant: each row is mapped and handed to the action,
+     * then discarded. Resources are released when the method returns.
+     */
+    public void forEachUser(Consumer<User> action) {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Iterating all users (fetchSize={})", streamingTemplate.getFetchSize());
+        }
+        String sql = "SELECT * FROM users";
+        int[] rowNum = {0};
+        streamingTemplate.query(sql, (RowCallbackHandler) rs -> action.accept(userRowMapper.mapRow(rs, rowNum[0]++)));
+    }
+    
     public Optional<User> findById(Long id) {
-        System.out.println(Prefixes.DATA_JDBC + "Finding user by id: " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Finding user by id: {}", id);
+        }
         String sql = "SELECT * FROM users WHERE id = ?";
         try {
             User user = jdbcTemplate.queryForObject(sql, userRowMapper, id);
@@ -78,21 +136,21 @@ public class UserDao {
     }
     
     public List<User> findByName(String name) {
-        System.out.println(Prefixes.DATA_JDBC + "Finding users by name: " + name);
+        log.debug(Prefixes.DATA_JDBC + "Finding users by name: {}", name);
         String sql = "SELECT * FROM users WHERE name LIKE ?";
         return jdbcTemplate.query(sql, userRowMapper, "%" + name + "%");
     }
     
     // Named parameters (safer, more readable)
     public List<User> findByNameNamed(String name) {
-        System.out.println(Prefixes.DATA_JDBC + "Finding users by name (named params): " + name);
+        log.debug(Prefixes.DATA_JDBC + "Finding users by name (named params): {}", name);
         String sql = "SELECT * FROM users WHERE name LIKE :name";
         MapSqlParameterSource params = new MapSqlParameterSource("name", "%" + name + "%");
         return namedTemplate.query(sql, params, userRowMapper);
     }
     
     public int count() {
-        System.out.println(Prefixes.DATA_JDBC + "Counting users");
+        log.debug(Prefixes.DATA_JDBC + "Counting users");
         String sql = "SELECT COUNT(*) FROM users";
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
         return count != null ? count : 0;
@@ -103,13 +161,13 @@ public class UserDao {
     // ============================================================
     
     public int insert(User user) {
-        System.out.println(Prefixes.DATA_JDBC + "Inserting user: " + user.getName());
+        log.debug(Prefixes.DATA_JDBC + "Inserting user: {}", user.getName());
         String sql = "INSERT INTO users (name, email, balance) VALUES (?, ?, ?)";
         return jdbcTemplate.update(sql, user.getName(), user.getEmail(), user.getBalance());
     }
     
     public Long insertAndGetId(User user) {
-        System.out.println(Prefixes.DATA_JDBC + "Inserting user and getting ID: " + user.getName());
+        log.debug(Prefixes.DATA_JDBC + "Inserting user and getting ID: {}", user.getName());
         Map<String, Object> params = new HashMap<>();
         params.put("name", user.getName());
         params.put("email", user.getEmail());
@@ -122,29 +180,59 @@ public class UserDao {
     // ============================================================
     
     public int update(User user) {
-        System.out.println(Prefixes.DATA_JDBC + "Updating user: " + user.getId());
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Updating user: {}", user.getId());
+        }
         String sql = "UPDATE users SET name = ?, email = ?, balance = ? WHERE id = ?";
         return jdbcTemplate.update(sql, user.getName(), user.getEmail(), user.getBalance(), user.getId());
     }
     
     public int updateBalance(Long userId, double newBalance) {
-        System.out.println(Prefixes.DATA_JDBC + "Updating balance for user " + userId + " to " + newBalance);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Updating balance for user {} to {}", userId, newBalance);
+        }
         String sql = "UPDATE users SET balance = ? WHERE id = ?";
         return jdbcTemplate.update(sql, newBalance, userId);
     }
     
+    /**
+     * Moves amount between two users with conditional, relative updates
+     * sent as ONE JDBC batch (one round trip).
+     * <p>
+     * - balance = balance + ? : no read-modify-write, so no lost updates
+     * - AND balance + ? >= 0  : the debit only applies if funds are sufficient
+     * - legs ordered by id    : rows are always locked in the same order → no deadlocks
+     * <p>
+     * Must run inside a transaction: if one leg matches no row, the caller rolls back.
+     *
+     * @return true if both legs updated exactly one row
+     */
+    public boolean transferBalance(Long fromId, Long toId, double amount) {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Atomic transfer of {} from {} to {}", amount, fromId, toId);
+        }
+        String sql = "UPDATE users SET balance = balance + ? WHERE id = ? AND balance + ? >= 0";
+        Object[] debit = {-amount, fromId, -amount};
+        Object[] credit = {amount, toId, amount};
+        List<Object[]> legs = fromId < toId ? List.of(debit, credit) : List.of(credit, debit);
+        int[] counts = jdbcTemplate.batchUpdate(sql, legs);
+        return counts.length == 2 && counts[0] == 1 && counts[1] == 1;
+    }
+    
     // ============================================================
     // DELETE METHODS
     // ============================================================
     
     public int delete(Long id) {
-        System.out.println(Prefixes.DATA_JDBC + "Deleting user: " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Deleting user: {}", id);
+        }
         String sql = "DELETE FROM users WHERE id = ?";
         return jdbcTemplate.update(sql, id);
     }
     
     public int deleteAll() {
-        System.out.println(Prefixes.DATA_JDBC + "Deleting all users");
+        log.debug(Prefixes.DATA_JDBC + "Deleting all users");
         String sql = "DELETE FROM users";
         return jdbcTemplate.update(sql);
     }
@@ -154,7 +242,9 @@ public class UserDao {
     // ============================================================
     
     public int[][] batchInsert(List<User> users) {
-        System.out.println(Prefixes.DATA_JDBC + "Batch inserting " + users.size() + " users");
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JDBC + "Batch inserting {} users", users.size());
+        }
         String sql = "INSERT INTO users (name, email, balance) VALUES (?, ?, ?)";
         return jdbcTemplate.batchUpdate(sql, users, users.size(),
             (ps, user) -> {
@@ -3,6 +3,7 @@ package com.example.spring_cert_notes.data.jpa;
 import com.example.spring_cert_notes.Prefixes;
 import com.example.spring_cert_notes.data.jpa.entity.Order;
 import com.example.spring_cert_notes.data.jpa.entity.User;
+import com.example.spring_cert_notes.data.jpa.pagination.KeysetPage;
 import com.example.spring_cert_notes.data.jpa.service.UserService;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.data.domain.Page;
@@ -75,6 +76,14 @@ public class JpaDemo {
         System.out.println(Prefixes.DATA_JPA + "Page " + page.getNumber() + " of " + page.getTotalPages());
         System.out.println(Prefixes.DATA_JPA + "Total elements: " + page.getTotalElements());
         page.getContent().forEach(u -> System.out.println(Prefixes.DATA_JPA + "  " + u));
+        
+        // Keyset pagination: follow the continuation token until exhausted
+        String token = null;
+        do {
+            KeysetPage<User> slice = userService.findAllByLastNameKeyset(token, 2);
+            slice.content().forEach(u -> System.out.println(Prefixes.DATA_JPA + "  [keyset] " + u));
+            token = slice.nextToken();
+        } while (token != null);
     }
     
     private static void demoSpecifications(UserService userService) {
@@ -14,7 +14,11 @@ import java.util.List;
 @Setter
 @Getter
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Composite indexes backing keyset pagination (see UserRepository section 8)
+    @Index(name = "idx_users_last_name_id", columnList = "lastName, id"),
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id")
+})
 @NamedQuery(
     name = "User.findActiveUsers",
     query = "SELECT u FROM User u WHERE u.active = true"
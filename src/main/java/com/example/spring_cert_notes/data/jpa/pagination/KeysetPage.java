@@ -0,0 +1,19 @@
+package com.example.spring_cert_notes.data.jpa.pagination;
+
+import java.util.List;
+
+/**
+ * KEYSET PAGE - one slice of a seek-paginated result
+ * <p>
+ * Unlike Page, there is no total count (no COUNT(*) query) and no page number.
+ * The client passes nextToken back to get the following slice.
+ *
+ * @param content   rows of this slice
+ * @param nextToken opaque continuation token, null when this is the last slice
+ */
+public record KeysetPage<T>(List<T> content, String nextToken) {
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
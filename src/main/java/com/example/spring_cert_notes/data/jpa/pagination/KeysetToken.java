@@ -0,0 +1,46 @@
+package com.example.spring_cert_notes.data.jpa.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * KEYSET TOKEN - opaque continuation token for seek pagination
+ * <p>
+ * Encodes the sort key of the last row returned: (sort value, id).
+ * The id is the tie-breaker so rows with equal sort values are never skipped or repeated.
+ * <p>
+ * Format before Base64: {@code <order>:<id>:<value>}
+ * - order guards against reusing a lastName token on a createdAt scroll
+ * - value goes last so it may itself contain ':'
+ */
+public record KeysetToken(String order, Long id, String value) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String raw = order + ":" + id + ":" + value;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token is malformed or belongs to another ordering
+     */
+    public static KeysetToken decode(String token, String expectedOrder) {
+        String raw;
+        try {
+            raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !parts[0].equals(expectedOrder)) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        try {
+            return new KeysetToken(parts[0], Long.valueOf(parts[1]), parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+}
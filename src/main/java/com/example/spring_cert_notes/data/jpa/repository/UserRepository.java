@@ -1,6 +1,7 @@
 package com.example.spring_cert_notes.data.jpa.repository;
 
 import com.example.spring_cert_notes.data.jpa.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -27,6 +28,7 @@ import java.util.Optional;
  * 5. @EntityGraph for N+1 optimization
  * 6. @Modifying for UPDATE/DELETE
  * 7. JpaSpecificationExecutor for dynamic queries
+ * 8. Keyset (seek) pagination
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
@@ -148,4 +150,26 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Modifying
     @Query("DELETE FROM User u WHERE u.active = false")
     int deleteInactiveUsers();
+    
+    // ============================================================
+    // 8. KEYSET (SEEK) PAGINATION
+    // ============================================================
+    // WHERE (sortKey, id) > (:lastSortKey, :lastId) instead of OFFSET n
+    // → index seek, so page 1000 costs the same as page 1
+    // → return List (not Page) so no COUNT(*) is issued
+    // → id is the tie-breaker for rows with equal sort values
+    
+    List<User> findByOrderByLastNameAscIdAsc(Limit limit);
+    
+    @Query("SELECT u FROM User u WHERE u.lastName > :lastName " +
+           "OR (u.lastName = :lastName AND u.id > :id) " +
+           "ORDER BY u.lastName ASC, u.id ASC")
+    List<User> findAfterLastName(@Param("lastName") String lastName, @Param("id") Long id, Limit limit);
+    
+    List<User> findByOrderByCreatedAtAscIdAsc(Limit limit);
+    
+    @Query("SELECT u FROM User u WHERE u.createdAt > :createdAt " +
+           "OR (u.createdAt = :createdAt AND u.id > :id) " +
+           "ORDER BY u.createdAt ASC, u.id ASC")
+    List<User> findAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
 }
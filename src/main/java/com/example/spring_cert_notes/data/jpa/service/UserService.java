@@ -2,9 +2,14 @@ package com.example.spring_cert_notes.data.jpa.service;
 
 import com.example.spring_cert_notes.Prefixes;
 import com.example.spring_cert_notes.data.jpa.entity.User;
+import com.example.spring_cert_notes.data.jpa.pagination.KeysetPage;
+import com.example.spring_cert_notes.data.jpa.pagination.KeysetToken;
 import com.example.spring_cert_notes.data.jpa.repository.UserRepository;
 import com.example.spring_cert_notes.data.jpa.specification.UserSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * USER SERVICE - Demonstrates repository usage
@@ -24,6 +30,8 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class UserService {
     
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -33,23 +41,27 @@ public class UserService {
     
     @Transactional
     public User save(User user) {
-        System.out.println(Prefixes.DATA_JPA + "Saving user: " + user.getEmail());
+        log.debug(Prefixes.DATA_JPA + "Saving user: {}", user.getEmail());
         return userRepository.save(user);
     }
     
     public Optional<User> findById(Long id) {
-        System.out.println(Prefixes.DATA_JPA + "Finding user by id: " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Finding user by id: {}", id);
+        }
         return userRepository.findById(id);
     }
     
     public List<User> findAll() {
-        System.out.println(Prefixes.DATA_JPA + "Finding all users");
+        log.debug(Prefixes.DATA_JPA + "Finding all users");
         return userRepository.findAll();
     }
     
     @Transactional
     public void delete(Long id) {
-        System.out.println(Prefixes.DATA_JPA + "Deleting user: " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Deleting user: {}", id);
+        }
         userRepository.deleteById(id);
     }
     
@@ -58,22 +70,22 @@ public class UserService {
     // ============================================================
     
     public Optional<User> findByEmail(String email) {
-        System.out.println(Prefixes.DATA_JPA + "Finding by email: " + email);
+        log.debug(Prefixes.DATA_JPA + "Finding by email: {}", email);
         return userRepository.findByEmail(email);
     }
     
     public List<User> findByName(String firstName, String lastName) {
-        System.out.println(Prefixes.DATA_JPA + "Finding by name: " + firstName + " " + lastName);
+        log.debug(Prefixes.DATA_JPA + "Finding by name: {} {}", firstName, lastName);
         return userRepository.findByLastNameAndFirstName(lastName, firstName);
     }
     
     public List<User> findActiveUsers() {
-        System.out.println(Prefixes.DATA_JPA + "Finding active users");
+        log.debug(Prefixes.DATA_JPA + "Finding active users");
         return userRepository.findByActiveTrue();
     }
     
     public List<User> findByEmailDomain(String domain) {
-        System.out.println(Prefixes.DATA_JPA + "Finding by email domain: " + domain);
+        log.debug(Prefixes.DATA_JPA + "Finding by email domain: {}", domain);
         return userRepository.findByEmailDomain(domain);
     }
     
@@ -82,30 +94,102 @@ public class UserService {
     // ============================================================
     
     public Page<User> findAllPaged(int page, int size) {
-        System.out.println(Prefixes.DATA_JPA + "Finding all users - page " + page + ", size " + size);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Finding all users - page {}, size {}", page, size);
+        }
         Pageable pageable = PageRequest.of(page, size);
         return userRepository.findAll(pageable);
     }
     
     public Page<User> findAllPagedAndSorted(int page, int size, String sortBy, boolean ascending) {
-        System.out.println(Prefixes.DATA_JPA + "Finding all users - sorted by " + sortBy);
+        log.debug(Prefixes.DATA_JPA + "Finding all users - sorted by {}", sortBy);
         Sort sort = ascending ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
         return userRepository.findAll(pageable);
     }
     
     public Page<User> findActiveUsersPaged(int page, int size) {
-        System.out.println(Prefixes.DATA_JPA + "Finding active users - paged");
+        log.debug(Prefixes.DATA_JPA + "Finding active users - paged");
         Pageable pageable = PageRequest.of(page, size, Sort.by("lastName").ascending());
         return userRepository.findByActive(true, pageable);
     }
     
+    // ============================================================
+    // KEYSET PAGINATION (no OFFSET, no COUNT)
+    // ============================================================
+    
+    private static final String ORDER_LAST_NAME = "lastName";
+    private static final String ORDER_CREATED_AT = "createdAt";
+    
+    /**
+     * Seek-paginates users ordered by (lastName, id).
+     *
+     * @param continuationToken null for the first slice, otherwise nextToken of the previous slice
+     * @throws IllegalArgumentException if size is less than one or the token is invalid
+     */
+    public KeysetPage<User> findAllByLastNameKeyset(String continuationToken, int size) {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Keyset page by lastName, size {}", size);
+        }
+        Limit limit = keysetLimit(size);
+        List<User> rows;
+        if (continuationToken == null) {
+            rows = userRepository.findByOrderByLastNameAscIdAsc(limit);
+        } else {
+            KeysetToken token = KeysetToken.decode(continuationToken, ORDER_LAST_NAME);
+            rows = userRepository.findAfterLastName(token.value(), token.id(), limit);
+        }
+        return toKeysetPage(rows, size, ORDER_LAST_NAME, User::getLastName);
+    }
+    
+    /**
+     * Seek-paginates users ordered by (createdAt, id).
+     *
+     * @param continuationToken null for the first slice, otherwise nextToken of the previous slice
+     * @throws IllegalArgumentException if size is less than one or the token is invalid
+     */
+    public KeysetPage<User> findAllByCreatedAtKeyset(String continuationToken, int size) {
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Keyset page by createdAt, size {}", size);
+        }
+        Limit limit = keysetLimit(size);
+        List<User> rows;
+        if (continuationToken == null) {
+            rows = userRepository.findByOrderByCreatedAtAscIdAsc(limit);
+        } else {
+            KeysetToken token = KeysetToken.decode(continuationToken, ORDER_CREATED_AT);
+            rows = userRepository.findAfterCreatedAt(LocalDateTime.parse(token.value()), token.id(), limit);
+        }
+        return toKeysetPage(rows, size, ORDER_CREATED_AT, u -> u.getCreatedAt().toString());
+    }
+    
+    /**
+     * Same rule as PageRequest.of; fetches one extra row to know whether another slice exists
+     */
+    private static Limit keysetLimit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        return Limit.of(size + 1);
+    }
+    
+    private KeysetPage<User> toKeysetPage(List<User> rows, int size, String order,
+                                          Function<User, String> sortValue) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<User> content = rows.subList(0, size);
+        User last = content.get(size - 1);
+        String next = new KeysetToken(order, last.getId(), sortValue.apply(last)).encode();
+        return new KeysetPage<>(content, next);
+    }
+    
     // ============================================================
     // SPECIFICATIONS (Dynamic Queries)
     // ============================================================
     
     public List<User> searchUsers(String firstName, String lastName, String emailDomain, Boolean active) {
-        System.out.println(Prefixes.DATA_JPA + "Searching users with specifications");
+        log.debug(Prefixes.DATA_JPA + "Searching users with specifications");
         
         Specification<User> spec = Specification
             .where(UserSpecifications.hasFirstName(firstName))
@@ -117,7 +201,7 @@ public class UserService {
     }
     
     public List<User> findUsersCreatedBetween(LocalDateTime start, LocalDateTime end) {
-        System.out.println(Prefixes.DATA_JPA + "Finding users created between dates");
+        log.debug(Prefixes.DATA_JPA + "Finding users created between dates");
         Specification<User> spec = UserSpecifications.createdBetween(start, end);
         return userRepository.findAll(spec);
     }
@@ -127,12 +211,14 @@ public class UserService {
     // ============================================================
     
     public Optional<User> findByIdWithOrders(Long id) {
-        System.out.println(Prefixes.DATA_JPA + "Finding user with orders (JOIN FETCH): " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Finding user with orders (JOIN FETCH): {}", id);
+        }
         return userRepository.findByIdWithOrders(id);
     }
     
     public List<User> findAllWithOrders() {
-        System.out.println(Prefixes.DATA_JPA + "Finding all users with orders (@EntityGraph)");
+        log.debug(Prefixes.DATA_JPA + "Finding all users with orders (@EntityGraph)");
         return userRepository.findAllWithOrdersGraph();
     }
     
@@ -142,13 +228,15 @@ public class UserService {
     
     @Transactional
     public int updateActiveStatus(Long id, boolean active) {
-        System.out.println(Prefixes.DATA_JPA + "Updating active status for user " + id);
+        if (log.isDebugEnabled()) {
+            log.debug(Prefixes.DATA_JPA + "Updating active status for user {}", id);
+        }
         return userRepository.updateActiveStatus(id, active);
     }
     
     @Transactional
     public int deactivateOldUsers(LocalDateTime beforeDate) {
-        System.out.println(Prefixes.DATA_JPA + "Deactivating users created before " + beforeDate);
+        log.debug(Prefixes.DATA_JPA + "Deactivating users created before {}", beforeDate);
         return userRepository.deactivateOldUsers(beforeDate);
     }
 }
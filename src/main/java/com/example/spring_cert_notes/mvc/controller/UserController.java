@@ -20,6 +20,7 @@ import java.util.List;
  * <p>
  * Complete CRUD operations with proper HTTP methods:
  * - GET    /api/users      - Get all users
+ * - GET    /api/users/scroll - Keyset scroll by id
  * - GET    /api/users/{id} - Get user by ID
  * - POST   /api/users      - Create user
  * - PUT    /api/users/{id} - Update user
@@ -55,6 +56,18 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    /**
+     * GET /api/users/scroll?after={lastId}&size=10 - Keyset scroll by id
+     * Cost does not grow with depth; pass the last id of the previous response
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<List<UserDto>> scrollUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size) {
+        List<UserDto> users = userService.findAfter(after, size);
+        return ResponseEntity.ok(users);
+    }
+    
     /**
      * GET /api/users/{id} - Get user by ID
      */
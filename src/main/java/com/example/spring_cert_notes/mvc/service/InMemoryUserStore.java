@@ -0,0 +1,324 @@
+package com.example.spring_cert_notes.mvc.service;
+
+import com.example.spring_cert_notes.mvc.dto.UserDto;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copy-on-write in-memory user store
+ * <p>
+ * All reads go through one immutable Snapshot held in a volatile field:
+ * - readers never lock and always see a consistent view
+ * - writers serialize on a lock, derive a new Snapshot from the current one and publish it
+ * <p>
+ * The snapshot keeps users ordered by id (stable paging, binary search by id),
+ * pre-lowercased search fields, and exact-match indexes on email and lastName.
+ * A write copies the id/entry arrays once and only the index shards whose keys
+ * changed; the rest of the snapshot is shared with the previous one.
+ * <p>
+ * Stored users never leave the store: put() keeps its own copy and every read
+ * returns fresh copies, so callers cannot mutate a published snapshot.
+ */
+class InMemoryUserStore {
+    
+    /**
+     * Stored user + its normalized search fields (computed once per write, not per search)
+     */
+    record Entry(UserDto user, String firstNameLower, String lastNameLower, String emailLower) {
+        
+        static Entry of(UserDto user) {
+            return new Entry(user, lower(user.getFirstName()), lower(user.getLastName()), lower(user.getEmail()));
+        }
+        
+        long id() {
+            return user.getId();
+        }
+    }
+    
+    /**
+     * Immutable exact-match index split into fixed shards.
+     * A write copies only the shard its key hashes to; buckets stay ordered by id.
+     */
+    static final class ShardedIndex {
+        
+        private static final int SHARDS = 64;
+        static final ShardedIndex EMPTY = new ShardedIndex(emptyShards());
+        
+        private final Map<String, List<Entry>>[] shards;
+        
+        private ShardedIndex(Map<String, List<Entry>>[] shards) {
+            this.shards = shards;
+        }
+        
+        List<Entry> get(String key) {
+            return key == null ? List.of() : shards[shard(key)].getOrDefault(key, List.of());
+        }
+        
+        ShardedIndex with(String key, Entry entry) {
+            if (key == null) {
+                return this;
+            }
+            List<Entry> bucket = new ArrayList<>(get(key));
+            int pos = 0;
+            while (pos < bucket.size() && bucket.get(pos).id() < entry.id()) {
+                pos++;
+            }
+            bucket.add(pos, entry);
+            return replace(key, List.copyOf(bucket));
+        }
+        
+        ShardedIndex without(String key, long id) {
+            if (key == null) {
+                return this;
+            }
+            List<Entry> bucket = new ArrayList<>(get(key));
+            if (!bucket.removeIf(entry -> entry.id() == id)) {
+                return this;
+            }
+            return replace(key, bucket.isEmpty() ? null : List.copyOf(bucket));
+        }
+        
+        private ShardedIndex replace(String key, List<Entry> bucket) {
+            int index = shard(key);
+            Map<String, List<Entry>> shard = new HashMap<>(shards[index]);
+            if (bucket == null) {
+                shard.remove(key);
+            } else {
+                shard.put(key, bucket);
+            }
+            Map<String, List<Entry>>[] copy = shards.clone();
+            copy[index] = Collections.unmodifiableMap(shard);
+            return new ShardedIndex(copy);
+        }
+        
+        private static int shard(String key) {
+            return Math.floorMod(key.hashCode(), SHARDS);
+        }
+        
+        @SuppressWarnings("unchecked")
+        private static Map<String, List<Entry>>[] emptyShards() {
+            Map<String, List<Entry>>[] shards = new Map[SHARDS];
+            Arrays.fill(shards, Map.of());
+            return shards;
+        }
+    }
+    
+    private record Snapshot(long[] ids,
+                            Entry[] entries,
+                            ShardedIndex byEmail,
+                            ShardedIndex byLastName) {
+        
+        static final Snapshot EMPTY = new Snapshot(new long[0], new Entry[0], ShardedIndex.EMPTY, ShardedIndex.EMPTY);
+        
+        Entry find(long id) {
+            int pos = Arrays.binarySearch(ids, id);
+            return pos >= 0 ? entries[pos] : null;
+        }
+        
+        Snapshot withIndexed(Entry entry) {
+            return new Snapshot(ids, entries,
+                byEmail.with(entry.emailLower(), entry),
+                byLastName.with(entry.lastNameLower(), entry));
+        }
+        
+        Snapshot withoutIndexed(Entry entry) {
+            return new Snapshot(ids, entries,
+                byEmail.without(entry.emailLower(), entry.id()),
+                byLastName.without(entry.lastNameLower(), entry.id()));
+        }
+    }
+    
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final Object writeLock = new Object();
+    
+    // ============================================================
+    // READS - lock-free, from the current snapshot
+    // ============================================================
+    
+    int size() {
+        return snapshot.ids().length;
+    }
+    
+    /**
+     * All users ordered by id (copies)
+     */
+    List<UserDto> all() {
+        Entry[] entries = snapshot.entries();
+        return copies(entries, 0, entries.length);
+    }
+    
+    /**
+     * Slice [offset, offset + limit) of the id-ordered list (copies)
+     */
+    List<UserDto> slice(long offset, int limit) {
+        Entry[] entries = snapshot.entries();
+        if (offset >= entries.length) {
+            return List.of();
+        }
+        int start = (int) offset;
+        return copies(entries, start, (int) Math.min((long) start + limit, entries.length));
+    }
+    
+    /**
+     * Up to limit users with id > afterId (keyset scroll, binary search)
+     */
+    List<UserDto> after(long afterId, int limit) {
+        Snapshot current = snapshot;
+        int pos = Arrays.binarySearch(current.ids(), afterId);
+        int start = pos >= 0 ? pos + 1 : -pos - 1;
+        int end = (int) Math.min((long) start + limit, current.ids().length);
+        return start >= end ? List.of() : copies(current.entries(), start, end);
+    }
+    
+    UserDto get(Long id) {
+        Entry entry = snapshot.find(id);
+        return entry == null ? null : copyOf(entry.user());
+    }
+    
+    boolean contains(Long id) {
+        return snapshot.find(id) != null;
+    }
+    
+    List<UserDto> findByEmail(String email) {
+        return copies(snapshot.byEmail().get(lower(email)));
+    }
+    
+    List<UserDto> findByLastName(String lastName) {
+        return copies(snapshot.byLastName().get(lower(lastName)));
+    }
+    
+    /**
+     * Case-insensitive "contains" on any combination of fields (null = no filter)
+     */
+    List<UserDto> search(String firstName, String lastName, String email) {
+        String first = lower(firstName);
+        String last = lower(lastName);
+        String mail = lower(email);
+        List<UserDto> result = new ArrayList<>();
+        for (Entry entry : snapshot.entries()) {
+            if (matches(entry.firstNameLower(), first)
+                    && matches(entry.lastNameLower(), last)
+                    && matches(entry.emailLower(), mail)) {
+                result.add(copyOf(entry.user()));
+            }
+        }
+        return result;
+    }
+    
+    private static boolean matches(String value, String filter) {
+        return filter == null || (value != null && value.contains(filter));
+    }
+    
+    // ============================================================
+    // WRITES - serialized, copy-on-write
+    // ============================================================
+    
+    /**
+     * Stores a copy of user (insert or replace by id) and returns another copy
+     */
+    UserDto put(UserDto user) {
+        Entry entry = Entry.of(copyOf(user));
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            long id = entry.id();
+            int pos = Arrays.binarySearch(current.ids(), id);
+            Snapshot next;
+            if (pos >= 0) {
+                Entry[] entries = current.entries().clone();
+                entries[pos] = entry;
+                next = new Snapshot(current.ids(), entries, current.byEmail(), current.byLastName())
+                    .withoutIndexed(current.entries()[pos]);
+            } else {
+                int insertAt = -pos - 1;
+                next = new Snapshot(insert(current.ids(), insertAt, id), insert(current.entries(), insertAt, entry),
+                    current.byEmail(), current.byLastName());
+            }
+            snapshot = next.withIndexed(entry);
+        }
+        return copyOf(entry.user());
+    }
+    
+    /**
+     * Atomically replaces the user with updater(copy of current).
+     * Returns a copy of the stored result, or null if the id does not exist.
+     */
+    UserDto update(Long id, UnaryOperator<UserDto> updater) {
+        synchronized (writeLock) {
+            Entry existing = snapshot.find(id);
+            if (existing == null) {
+                return null;
+            }
+            return put(updater.apply(copyOf(existing.user())));
+        }
+    }
+    
+    void remove(Long id) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            int pos = Arrays.binarySearch(current.ids(), id);
+            if (pos < 0) {
+                return;
+            }
+            snapshot = new Snapshot(remove(current.ids(), pos), remove(current.entries(), pos),
+                current.byEmail(), current.byLastName())
+                .withoutIndexed(current.entries()[pos]);
+        }
+    }
+    
+    static UserDto copyOf(UserDto source) {
+        UserDto copy = new UserDto(source.getId(), source.getFirstName(), source.getLastName(), source.getEmail());
+        copy.setAge(source.getAge());
+        return copy;
+    }
+    
+    private static List<UserDto> copies(Entry[] entries, int from, int to) {
+        List<UserDto> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(copyOf(entries[i].user()));
+        }
+        return result;
+    }
+    
+    private static List<UserDto> copies(List<Entry> entries) {
+        List<UserDto> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(copyOf(entry.user()));
+        }
+        return result;
+    }
+    
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+    
+    private static long[] insert(long[] array, int index, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+    
+    private static Entry[] insert(Entry[] array, int index, Entry value) {
+        Entry[] result = new Entry[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+    
+    private static long[] remove(long[] array, int index) {
+        long[] result = new long[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+    
+    private static Entry[] remove(Entry[] array, int index) {
+        Entry[] result = new Entry[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
@@ -8,17 +8,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 /**
  * User Service (in-memory implementation for demo)
+ * <p>
+ * Backed by a copy-on-write InMemoryUserStore: reads never block,
+ * results are ordered by id and are copies (mutating them does not touch the store).
  */
 @Service
 public class UserService {
     
-    private final Map<Long, UserDto> users = new ConcurrentHashMap<>();
+    private final InMemoryUserStore users = new InMemoryUserStore();
     private final AtomicLong idGenerator = new AtomicLong(1);
     
     public UserService() {
@@ -29,15 +30,23 @@ public class UserService {
     }
     
     public List<UserDto> findAll() {
-        return new ArrayList<>(users.values());
+        return users.all();
     }
     
+    /**
+     * Offset paging over the id-ordered store; only the page is copied.
+     * Pageable sort is not applied - order is always by id.
+     */
     public Page<UserDto> findAll(Pageable pageable) {
-        List<UserDto> all = new ArrayList<>(users.values());
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), all.size());
-        List<UserDto> content = start < all.size() ? all.subList(start, end) : Collections.emptyList();
-        return new PageImpl<>(content, pageable, all.size());
+        List<UserDto> content = users.slice(pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, users.size());
+    }
+    
+    /**
+     * Keyset scroll: next users with id greater than afterId (null = from the start)
+     */
+    public List<UserDto> findAfter(Long afterId, int size) {
+        return users.after(afterId == null ? 0 : afterId, size);
     }
     
     public Optional<UserDto> findById(Long id) {
@@ -45,38 +54,42 @@ public class UserService {
     }
     
     public boolean existsById(Long id) {
-        return users.containsKey(id);
+        return users.contains(id);
+    }
+    
+    public List<UserDto> findByEmail(String email) {
+        return users.findByEmail(email);
+    }
+    
+    public List<UserDto> findByLastName(String lastName) {
+        return users.findByLastName(lastName);
     }
     
     public List<UserDto> search(String firstName, String lastName, String email) {
-        return users.values().stream()
-            .filter(u -> firstName == null || u.getFirstName().toLowerCase().contains(firstName.toLowerCase()))
-            .filter(u -> lastName == null || u.getLastName().toLowerCase().contains(lastName.toLowerCase()))
-            .filter(u -> email == null || u.getEmail().toLowerCase().contains(email.toLowerCase()))
-            .collect(Collectors.toList());
+        return users.search(firstName, lastName, email);
     }
     
     public UserDto create(UserDto dto) {
         dto.setId(idGenerator.getAndIncrement());
-        users.put(dto.getId(), dto);
-        return dto;
+        return users.put(dto);
     }
     
     public UserDto update(UserDto dto) {
-        users.put(dto.getId(), dto);
-        return dto;
+        return users.put(dto);
     }
     
     public UserDto partialUpdate(Long id, UserDto dto) {
-        UserDto existing = users.get(id);
-        if (existing == null) {
+        UserDto updated = users.update(id, existing -> {
+            if (dto.getFirstName() != null) existing.setFirstName(dto.getFirstName());
+            if (dto.getLastName() != null) existing.setLastName(dto.getLastName());
+            if (dto.getEmail() != null) existing.setEmail(dto.getEmail());
+            if (dto.getAge() != null) existing.setAge(dto.getAge());
+            return existing;
+        });
+        if (updated == null) {
             throw new ResourceNotFoundException("User", "id", id);
         }
-        if (dto.getFirstName() != null) existing.setFirstName(dto.getFirstName());
-        if (dto.getLastName() != null) existing.setLastName(dto.getLastName());
-        if (dto.getEmail() != null) existing.setEmail(dto.getEmail());
-        if (dto.getAge() != null) existing.setAge(dto.getAge());
-        return existing;
+        return updated;
     }
     
     public void delete(Long id) {
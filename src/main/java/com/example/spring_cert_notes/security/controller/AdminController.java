@@ -1,6 +1,9 @@
 package com.example.spring_cert_notes.security.controller;
 
+import com.example.spring_cert_notes.security.service.CustomUserDetailsService;
 import com.example.spring_cert_notes.security.service.MethodSecurityService;
+import com.example.spring_cert_notes.security.service.RoleManagementService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -18,9 +21,16 @@ import java.util.Map;
 public class AdminController {
     
     private final MethodSecurityService methodSecurityService;
+    private final CustomUserDetailsService userDetailsService;
+    private final RoleManagementService roleManagementService;
     
-    public AdminController(MethodSecurityService methodSecurityService) {
+    public AdminController(
+            MethodSecurityService methodSecurityService,
+            CustomUserDetailsService userDetailsService,
+            RoleManagementService roleManagementService) {
         this.methodSecurityService = methodSecurityService;
+        this.userDetailsService = userDetailsService;
+        this.roleManagementService = roleManagementService;
     }
     
     @GetMapping("/dashboard")
@@ -41,11 +51,46 @@ public class AdminController {
     @DeleteMapping("/users/{id}")
     @PreAuthorize("hasRole('ADMIN') and hasAuthority('DELETE_USER')")
     public ResponseEntity<Map<String, String>> deleteUser(@PathVariable Long id) {
+        userDetailsService.evictByUserId(id);
         return ResponseEntity.ok(Map.of(
             "message", "User " + id + " deleted successfully"
         ));
     }
     
+    /**
+     * Gán permission cho role - transaction đã commit → build lại bảng expand + cache
+     */
+    @PutMapping("/roles/{role}/permissions/{permission}")
+    public ResponseEntity<Map<String, String>> grantPermission(
+            @PathVariable String role, @PathVariable String permission) {
+        if (!roleManagementService.grantPermission(role, permission)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "message", "Role " + role + " or permission " + permission + " not found"
+            ));
+        }
+        userDetailsService.refreshRoles();
+        return ResponseEntity.ok(Map.of(
+            "message", "Permission " + permission + " granted to " + role
+        ));
+    }
+    
+    /**
+     * Thu hồi permission của role - transaction đã commit → build lại bảng expand + cache
+     */
+    @DeleteMapping("/roles/{role}/permissions/{permission}")
+    public ResponseEntity<Map<String, String>> revokePermission(
+            @PathVariable String role, @PathVariable String permission) {
+        if (!roleManagementService.revokePermission(role, permission)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "message", "Role " + role + " not found"
+            ));
+        }
+        userDetailsService.refreshRoles();
+        return ResponseEntity.ok(Map.of(
+            "message", "Permission " + permission + " revoked from " + role
+        ));
+    }
+    
     /**
      * Generate report - cần WRITE_REPORTS authority
      */
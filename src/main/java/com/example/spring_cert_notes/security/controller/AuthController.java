@@ -9,6 +9,7 @@ import com.example.spring_cert_notes.security.jwt.JwtService;
 import com.example.spring_cert_notes.security.repository.RoleRepository;
 import com.example.spring_cert_notes.security.repository.UserRepository;
 import com.example.spring_cert_notes.security.service.CustomUserDetails;
+import com.example.spring_cert_notes.security.service.CustomUserDetailsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -33,18 +34,21 @@ public class AuthController {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final CustomUserDetailsService userDetailsService;
     
     public AuthController(
             AuthenticationManager authenticationManager,
             UserRepository userRepository,
             RoleRepository roleRepository,
             PasswordEncoder passwordEncoder,
-            JwtService jwtService) {
+            JwtService jwtService,
+            CustomUserDetailsService userDetailsService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
     }
     
     /**
@@ -116,6 +120,7 @@ public class AuthController {
         
         // 5. Save user
         userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
         
         // 6. Generate token
         CustomUserDetails userDetails = new CustomUserDetails(user);
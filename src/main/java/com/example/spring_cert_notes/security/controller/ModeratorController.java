@@ -1,5 +1,6 @@
 package com.example.spring_cert_notes.security.controller;
 
+import com.example.spring_cert_notes.security.service.CustomUserDetailsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,12 @@ import java.util.Map;
 @RequestMapping("/api/moderator")
 public class ModeratorController {
     
+    private final CustomUserDetailsService userDetailsService;
+    
+    public ModeratorController(CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+    
     @GetMapping("/pending-posts")
     public ResponseEntity<List<Map<String, Object>>> getPendingPosts() {
         return ResponseEntity.ok(List.of(
@@ -46,6 +53,7 @@ public class ModeratorController {
     @PostMapping("/users/{id}/ban")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> banUser(@PathVariable Long id) {
+        userDetailsService.evictByUserId(id);
         return ResponseEntity.ok(Map.of(
             "message", "User " + id + " has been banned"
         ));
@@ -1,5 +1,6 @@
 package com.example.spring_cert_notes.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -57,8 +58,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
         
         try {
-            // 4. Extract username from token
-            final String username = jwtService.extractUsername(jwt);
+            // 4. Parse + verify token MỘT lần, dùng lại claims cho các bước sau
+            final Claims claims = jwtService.extractAllClaims(jwt);
+            final String username = claims.getSubject();
             
             // 5. Check if user is not already authenticated
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -67,7 +69,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
                 
                 // 7. Validate token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     
                     // 8. Create authentication token
                     UsernamePasswordAuthenticationToken authToken = 
@@ -1,17 +1,27 @@
 package com.example.spring_cert_notes.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -23,6 +33,12 @@ import java.util.function.Function;
  * - Header: Algorithm & Token Type
  * - Payload: Claims (data)
  * - Signature: Verify token integrity
+ * 
+ * Performance:
+ * - Signing key và JwtParser được tạo 1 lần lúc khởi động (thread-safe, immutable)
+ * - Claims đã verify được cache theo SHA-256 của token, hết hạn đúng lúc token hết hạn (exp)
+ * - jwt.claims-cache.max-size=0 tắt hẳn cache (không hash, không qua Caffeine):
+ *   Caffeine maximumSize(0) evict bất đồng bộ nên vẫn có thể hit
  */
 @Service
 public class JwtService {
@@ -36,6 +52,25 @@ public class JwtService {
     @Value("${jwt.refresh-expiration:604800000}")  // 7 days
     private long refreshExpiration;
     
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+    
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> claimsCache;  // null khi cache bị tắt
+    
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser()
+            .verifyWith(signingKey)
+            .build();
+        this.claimsCache = claimsCacheMaxSize <= 0 ? null : Caffeine.newBuilder()
+            .maximumSize(claimsCacheMaxSize)
+            .expireAfter(new ClaimsExpiry())
+            .build();
+    }
+    
     /**
      * Extract username từ token
      */
@@ -51,6 +86,25 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Parse + verify token (1 lần), kết quả được cache.
+     * 
+     * Token sai chữ ký / hết hạn sẽ throw JwtException như trước - không bao giờ được cache.
+     */
+    public Claims extractAllClaims(String token) {
+        if (claimsCache == null) {
+            return jwtParser.parseSignedClaims(token).getPayload();
+        }
+        String key = hash(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        claimsCache.put(key, claims);
+        return claims;
+    }
+    
     /**
      * Generate token với UserDetails
      */
@@ -81,7 +135,7 @@ public class JwtService {
             .subject(userDetails.getUsername())
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSigningKey())
+            .signWith(signingKey)
             .compact();
     }
     
@@ -89,28 +143,53 @@ public class JwtService {
      * Validate token
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Validate claims đã parse sẵn - dùng trong filter để không parse lại token
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+            && !claims.getExpiration().before(new Date());
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+    /**
+     * Cache key = SHA-256(token): độ dài cố định, không giữ raw bearer token trong heap
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Entry sống đến đúng thời điểm exp của token
+     */
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,16 @@
+package com.example.spring_cert_notes.security.repository;
+
+import com.example.spring_cert_notes.security.entity.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Permission Repository cho Security Demo
+ */
+@Repository
+public interface PermissionRepository extends JpaRepository<Permission, Long> {
+    
+    Optional<Permission> findByName(String name);
+}
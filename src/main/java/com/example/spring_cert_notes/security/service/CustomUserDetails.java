@@ -1,15 +1,10 @@
 package com.example.spring_cert_notes.security.service;
 
-import com.example.spring_cert_notes.security.entity.Permission;
-import com.example.spring_cert_notes.security.entity.Role;
 import com.example.spring_cert_notes.security.entity.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * BÀI 2: CUSTOM USER DETAILS
@@ -20,9 +15,18 @@ import java.util.Set;
 public class CustomUserDetails implements UserDetails {
     
     private final User user;
+    private final ExpandedAuthorities authorities;
     
     public CustomUserDetails(User user) {
+        this(user, ExpandedAuthorities.of(user.getRoles()));
+    }
+    
+    /**
+     * Dùng authorities đã expand sẵn từ RoleAuthorityTable
+     */
+    public CustomUserDetails(User user, ExpandedAuthorities authorities) {
         this.user = user;
+        this.authorities = authorities;
     }
     
     /**
@@ -33,19 +37,14 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        
-        for (Role role : user.getRoles()) {
-            // Thêm role (đã có prefix ROLE_)
-            authorities.add(new SimpleGrantedAuthority(role.getName()));
-            
-            // Thêm permissions của role
-            for (Permission permission : role.getPermissions()) {
-                authorities.add(new SimpleGrantedAuthority(permission.getName()));
-            }
-        }
-        
-        return authorities;
+        return authorities.getAuthorities();
+    }
+    
+    /**
+     * Kiểm tra authority bằng hash lookup O(1)
+     */
+    public boolean hasAuthority(String authority) {
+        return authorities.has(authority);
     }
     
     @Override
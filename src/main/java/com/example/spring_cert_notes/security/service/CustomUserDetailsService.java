@@ -2,11 +2,17 @@ package com.example.spring_cert_notes.security.service;
 
 import com.example.spring_cert_notes.security.entity.User;
 import com.example.spring_cert_notes.security.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
 
 /**
  * BÀI 2: CUSTOM USER DETAILS SERVICE
@@ -15,14 +21,35 @@ import org.springframework.transaction.annotation.Transactional;
  * Spring Security sẽ gọi loadUserByUsername() khi authenticate.
  * 
  * Đây là cách phổ biến nhất để integrate với database thực tế.
+ * 
+ * Cache: mỗi JWT request đều gọi loadUserByUsername() → cache UserDetails
+ * (bounded + TTL) để tránh query JOIN FETCH mỗi lần.
+ * Controllers thay đổi user phải gọi evict()/evictByUserId().
+ * Metrics: cache.gets{cache=userDetails,result=hit|miss}, cache.evictions, cache.size
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     
+    static final String CACHE_NAME = "userDetails";
+    
     private final UserRepository userRepository;
+    private final RoleAuthorityTable roleAuthorityTable;
+    private final Cache<String, CustomUserDetails> userDetailsCache;
     
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(
+            UserRepository userRepository,
+            RoleAuthorityTable roleAuthorityTable,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl-seconds:300}") long ttlSeconds) {
         this.userRepository = userRepository;
+        this.roleAuthorityTable = roleAuthorityTable;
+        this.userDetailsCache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, CACHE_NAME);
     }
     
     /**
@@ -33,13 +60,50 @@ public class CustomUserDetailsService implements UserDetailsService {
      * @throws UsernameNotFoundException nếu không tìm thấy user
      */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Không dùng @Transactional ở đây: cache hit không cần mở transaction/connection.
+        // Query JOIN FETCH đã load đủ roles + permissions trong transaction của repository.
+        // Loader throw UsernameNotFoundException → exception được ném ra, không cache "not found"
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+    
+    private CustomUserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsernameWithRolesAndPermissions(username)
             .orElseThrow(() -> new UsernameNotFoundException(
                 "User not found with username: " + username
             ));
         
-        return new CustomUserDetails(user);
+        return new CustomUserDetails(user, roleAuthorityTable.expand(user.getRoles()));
+    }
+    
+    // ============================================================
+    // Eviction hooks - gọi khi user bị thay đổi
+    // ============================================================
+    
+    /**
+     * Xóa cache của 1 username (register, đổi password, đổi role...)
+     */
+    public void evict(String username) {
+        userDetailsCache.invalidate(username);
+    }
+    
+    /**
+     * Xóa cache theo user id (delete, ban...) - cache key là username nên phải scan,
+     * chấp nhận được vì thao tác này hiếm
+     */
+    public void evictByUserId(Long userId) {
+        userDetailsCache.asMap().values().removeIf(details -> userId.equals(details.getUserId()));
+    }
+    
+    public void evictAll() {
+        userDetailsCache.invalidateAll();
+    }
+    
+    /**
+     * Roles/permissions thay đổi → build lại bảng expand và bỏ mọi UserDetails cũ
+     */
+    public void refreshRoles() {
+        roleAuthorityTable.refresh();
+        evictAll();
     }
 }
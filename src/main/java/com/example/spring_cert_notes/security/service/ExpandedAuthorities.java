@@ -0,0 +1,61 @@
+package com.example.spring_cert_notes.security.service;
+
+import com.example.spring_cert_notes.security.entity.Permission;
+import com.example.spring_cert_notes.security.entity.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tập authorities (roles + permissions) đã expand sẵn, immutable.
+ * 
+ * - authorities: trả về cho Spring Security (getAuthorities)
+ * - byName: hash lookup O(1) thay vì stream().anyMatch() qua từng authority
+ */
+public final class ExpandedAuthorities {
+    
+    private final Map<String, GrantedAuthority> byName;
+    private final Set<GrantedAuthority> authorities;
+    
+    private ExpandedAuthorities(Map<String, GrantedAuthority> byName) {
+        this.byName = Map.copyOf(byName);
+        this.authorities = Set.copyOf(byName.values());
+    }
+    
+    /**
+     * Expand trực tiếp từ entity graph Role → Permission
+     */
+    public static ExpandedAuthorities of(Collection<Role> roles) {
+        Map<String, GrantedAuthority> byName = new HashMap<>();
+        for (Role role : roles) {
+            byName.put(role.getName(), new SimpleGrantedAuthority(role.getName()));
+            for (Permission permission : role.getPermissions()) {
+                byName.put(permission.getName(), new SimpleGrantedAuthority(permission.getName()));
+            }
+        }
+        return new ExpandedAuthorities(byName);
+    }
+    
+    /**
+     * Hợp nhiều tập đã expand (user có nhiều roles)
+     */
+    static ExpandedAuthorities union(Collection<ExpandedAuthorities> parts) {
+        Map<String, GrantedAuthority> byName = new HashMap<>();
+        for (ExpandedAuthorities part : parts) {
+            byName.putAll(part.byName);
+        }
+        return new ExpandedAuthorities(byName);
+    }
+    
+    public Set<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+    
+    public boolean has(String authority) {
+        return byName.containsKey(authority);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.spring_cert_notes.security.service;
+
+import com.example.spring_cert_notes.security.entity.Role;
+import com.example.spring_cert_notes.security.repository.RoleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng expand Role → authorities, tính 1 lần từ RoleRepository.
+ * 
+ * - Build khi ApplicationReadyEvent (sau DataInitializer)
+ * - Mỗi tổ hợp roles chỉ có 1 instance ExpandedAuthorities (interned),
+ *   mọi CustomUserDetails cùng tổ hợp dùng chung
+ * - Roles thay đổi → gọi refresh() (xem CustomUserDetailsService.refreshRoles(),
+ *   được AdminController gọi sau khi grant/revoke permission của role)
+ */
+@Component
+public class RoleAuthorityTable {
+    
+    private final RoleRepository roleRepository;
+    
+    /**
+     * Bảng theo role và cache theo tổ hợp roles đi cùng nhau: refresh() thay cả
+     * snapshot. expand() đang chạy với snapshot cũ chỉ ghi vào cache của snapshot
+     * cũ (bị bỏ), không thể nhét entry cũ vào cache mới.
+     */
+    private record Snapshot(Map<String, ExpandedAuthorities> byRole,
+                            Map<Set<String>, ExpandedAuthorities> byRoleCombination) {}
+    
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new ConcurrentHashMap<>());
+    
+    public RoleAuthorityTable(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Map<String, ExpandedAuthorities> table = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            table.put(role.getName(), ExpandedAuthorities.of(List.of(role)));
+        }
+        this.snapshot = new Snapshot(Map.copyOf(table), new ConcurrentHashMap<>());
+    }
+    
+    /**
+     * Authorities của 1 user theo roles của user đó
+     */
+    public ExpandedAuthorities expand(Set<Role> roles) {
+        Snapshot current = snapshot;
+        Set<String> roleNames = roles.stream().map(Role::getName).collect(Collectors.toUnmodifiableSet());
+        return current.byRoleCombination().computeIfAbsent(roleNames, names -> compute(current.byRole(), roles));
+    }
+    
+    private static ExpandedAuthorities compute(Map<String, ExpandedAuthorities> table, Set<Role> roles) {
+        List<ExpandedAuthorities> parts = new ArrayList<>(roles.size());
+        for (Role role : roles) {
+            ExpandedAuthorities expanded = table.get(role.getName());
+            // Role mới chưa có trong bảng → fallback đi qua entity graph
+            parts.add(expanded != null ? expanded : ExpandedAuthorities.of(List.of(role)));
+        }
+        return parts.size() == 1 ? parts.get(0) : ExpandedAuthorities.union(parts);
+    }
+}
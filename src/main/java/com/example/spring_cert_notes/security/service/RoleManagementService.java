@@ -0,0 +1,56 @@
+package com.example.spring_cert_notes.security.service;
+
+import com.example.spring_cert_notes.security.entity.Permission;
+import com.example.spring_cert_notes.security.entity.Role;
+import com.example.spring_cert_notes.security.repository.PermissionRepository;
+import com.example.spring_cert_notes.security.repository.RoleRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Thay đổi permissions của 1 role.
+ * 
+ * Chỉ ghi database. Caller gọi CustomUserDetailsService.refreshRoles()
+ * SAU KHI method trả về (transaction đã commit), nếu không bảng expand
+ * có thể đọc lại dữ liệu cũ.
+ */
+@Service
+public class RoleManagementService {
+    
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    
+    public RoleManagementService(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+    }
+    
+    /**
+     * @return false nếu role hoặc permission không tồn tại
+     */
+    @Transactional
+    public boolean grantPermission(String roleName, String permissionName) {
+        Optional<Role> role = roleRepository.findByName(roleName);
+        Optional<Permission> permission = permissionRepository.findByName(permissionName);
+        if (role.isEmpty() || permission.isEmpty()) {
+            return false;
+        }
+        role.get().addPermission(permission.get());
+        return true;
+    }
+    
+    /**
+     * @return false nếu role không tồn tại
+     */
+    @Transactional
+    public boolean revokePermission(String roleName, String permissionName) {
+        Optional<Role> role = roleRepository.findByName(roleName);
+        if (role.isEmpty()) {
+            return false;
+        }
+        role.get().getPermissions().removeIf(permission -> permission.getName().equals(permissionName));
+        return true;
+    }
+}
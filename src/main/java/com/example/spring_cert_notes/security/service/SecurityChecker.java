@@ -21,10 +21,7 @@ public class SecurityChecker {
         }
         
         // Admin có quyền access tất cả
-        boolean isAdmin = authentication.getAuthorities().stream()
-            .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        
-        if (isAdmin) {
+        if (hasPermission(authentication, "ROLE_ADMIN")) {
             return true;
         }
         
@@ -45,9 +42,16 @@ public class SecurityChecker {
      * Kiểm tra user có permission cụ thể không
      */
     public boolean hasPermission(Authentication authentication, String permission) {
-        return authentication != null &&
-               authentication.getAuthorities().stream()
-                   .anyMatch(a -> a.getAuthority().equals(permission));
+        if (authentication == null) {
+            return false;
+        }
+        // CustomUserDetails: hash lookup trên authorities đã expand sẵn
+        if (authentication.getPrincipal() instanceof CustomUserDetails details) {
+            return details.hasAuthority(permission);
+        }
+        // Principal khác (in-memory, JDBC...): duyệt authorities như cũ
+        return authentication.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals(permission));
     }
     
     private boolean checkOwnership(Long resourceId, String username) {
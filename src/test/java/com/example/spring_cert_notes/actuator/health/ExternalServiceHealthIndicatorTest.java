@@ -0,0 +1,120 @@
+package com.example.spring_cert_notes.actuator.health;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ExternalServiceHealthIndicator against a local HTTP stub
+ * <p>
+ * refresh() is called directly instead of starting the poller, so each test
+ * controls exactly when the snapshot changes.
+ */
+@DisplayName("ExternalServiceHealthIndicator snapshot")
+class ExternalServiceHealthIndicatorTest {
+
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicLong delayMs = new AtomicLong();
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/status", exchange -> {
+            try {
+                Thread.sleep(delayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/status";
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    private ExternalServiceHealthIndicator indicator(int timeoutMs, long staleAfterSeconds) {
+        return new ExternalServiceHealthIndicator(url, timeoutMs, 30, staleAfterSeconds, new StandardEnvironment());
+    }
+
+    @Test
+    @DisplayName("UNKNOWN until the first poll")
+    void unknownBeforeFirstPoll() {
+        Health health = indicator(1000, 90).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(health.getDetails()).containsEntry("status", "Not checked yet");
+    }
+
+    @Test
+    @DisplayName("Follows the stub: 200 -> UP, 500 -> DOWN")
+    void followsStubStatus() {
+        ExternalServiceHealthIndicator indicator = indicator(1000, 90);
+
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(indicator.health().getDetails()).containsEntry("url", url);
+
+        status.set(500);
+        indicator.refresh();
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThat(indicator.health().getDetails()).containsEntry("error", "Service returned status 500");
+    }
+
+    @Test
+    @DisplayName("A response slower than the timeout is DOWN")
+    void slowResponseIsDown() {
+        ExternalServiceHealthIndicator indicator = indicator(100, 90);
+        delayMs.set(500);
+
+        indicator.refresh();
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    @DisplayName("An unreachable service is DOWN")
+    void unreachableIsDown() {
+        ExternalServiceHealthIndicator indicator = indicator(1000, 90);
+        server.stop(0);
+
+        indicator.refresh();
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThat(indicator.health().getDetails()).containsKey("error");
+    }
+
+    @Test
+    @DisplayName("A stale snapshot is UNKNOWN with the last status")
+    void staleSnapshotIsUnknown() throws Exception {
+        ExternalServiceHealthIndicator indicator = indicator(1000, 0);
+        indicator.refresh();
+        Thread.sleep(5);
+
+        Health health = indicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(health.getDetails())
+            .containsEntry("lastStatus", "UP")
+            .containsEntry("stale", true)
+            .containsEntry("url", url);
+    }
+}
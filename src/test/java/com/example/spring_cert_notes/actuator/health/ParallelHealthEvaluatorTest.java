@@ -0,0 +1,156 @@
+package com.example.spring_cert_notes.actuator.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deadline and last-known behavior of ParallelHealthEvaluator
+ * <p>
+ * The deadline is short, so waiting one deadline is enough to start a new round.
+ */
+@DisplayName("ParallelHealthEvaluator deadlines")
+class ParallelHealthEvaluatorTest {
+
+    private static final long TIMEOUT_MS = 100;
+
+    private MeterRegistry registry;
+    private ExecutorService executor;
+    private ParallelHealthEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+        evaluator = new ParallelHealthEvaluator(executor, TIMEOUT_MS, () -> registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static void waitNextRound() throws InterruptedException {
+        Thread.sleep(TIMEOUT_MS + 30);
+    }
+
+    @Test
+    @DisplayName("Indicators run in parallel: latency is the max, not the sum")
+    void evaluatesInParallel() {
+        evaluator = new ParallelHealthEvaluator(executor, 1000, () -> registry);
+        for (String name : new String[] {"a", "b", "c"}) {
+            evaluator.register(name, () -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Health.up().build();
+            });
+        }
+
+        long start = System.nanoTime();
+        assertThat(evaluator.evaluate("a").getStatus()).isEqualTo(Status.UP);
+        assertThat(evaluator.evaluate("b").getStatus()).isEqualTo(Status.UP);
+        assertThat(evaluator.evaluate("c").getStatus()).isEqualTo(Status.UP);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isLessThan(500);
+        assertThat(registry.get("health.indicator.evaluation").tag("indicator", "a")
+            .tag("outcome", "completed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A slow indicator is UNKNOWN with its last-known state, and is not resubmitted")
+    void slowIndicatorReportsLastKnown() throws Exception {
+        AtomicBoolean hang = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        evaluator.register("slow", () -> {
+            calls.incrementAndGet();
+            if (hang.get()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Health.down().withDetail("attempt", "late").build();
+            }
+            return Health.up().withDetail("attempt", "first").build();
+        });
+
+        assertThat(evaluator.evaluate("slow").getStatus()).isEqualTo(Status.UP);
+
+        hang.set(true);
+        waitNextRound();
+        Health timedOut = evaluator.evaluate("slow");
+        assertThat(timedOut.getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(timedOut.getDetails())
+            .containsEntry("lastKnownStatus", "UP")
+            .containsKey("error");
+        assertThat(timedOut.getDetails().get("lastKnown")).isEqualTo(Map.of("attempt", "first"));
+
+        // Still hung in the next round: reuses the running call instead of taking another thread
+        waitNextRound();
+        assertThat(evaluator.evaluate("slow").getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(registry.get("health.indicator.timeouts").tag("indicator", "slow").counter().count())
+            .isEqualTo(2.0);
+
+        // Once it finishes, the late result becomes the answer and the last-known state
+        release.countDown();
+        waitNextRound();
+        Health recovered = evaluator.evaluate("slow");
+        assertThat(recovered.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(recovered.getDetails()).containsEntry("attempt", "late");
+    }
+
+    @Test
+    @DisplayName("An indicator that never completed has no last-known state")
+    void noLastKnownBeforeFirstResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        evaluator.register("hung", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Health.up().build();
+        });
+
+        Health health = evaluator.evaluate("hung");
+        release.countDown();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UNKNOWN);
+        assertThat(health.getDetails()).doesNotContainKeys("lastKnownStatus", "lastKnown");
+    }
+
+    @Test
+    @DisplayName("An exception becomes DOWN and is timed as an error")
+    void exceptionIsDown() {
+        evaluator.register("broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        Health health = evaluator.evaluate("broken");
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(registry.get("health.indicator.evaluation").tag("indicator", "broken")
+            .tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
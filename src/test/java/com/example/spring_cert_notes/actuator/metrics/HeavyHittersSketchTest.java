@@ -0,0 +1,106 @@
+package com.example.spring_cert_notes.actuator.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Count-Min estimates and top-K membership of HeavyHittersSketch
+ * <p>
+ * The sketch is wide enough that the few keys used here do not collide,
+ * so estimates equal the true counts.
+ */
+@DisplayName("HeavyHittersSketch top-K")
+class HeavyHittersSketchTest {
+
+    private static void addTimes(HeavyHittersSketch sketch, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(key);
+        }
+    }
+
+    @Test
+    @DisplayName("Estimates never fall below the true count")
+    void estimatesAreUpperBounds() {
+        // Narrow sketch forces collisions
+        HeavyHittersSketch sketch = new HeavyHittersSketch(8, 2, 3);
+        for (int key = 0; key < 50; key++) {
+            addTimes(sketch, "user" + key, key % 5 + 1);
+        }
+
+        for (int key = 0; key < 50; key++) {
+            assertThat(sketch.estimate("user" + key)).isGreaterThanOrEqualTo(key % 5 + 1);
+        }
+        assertThat(sketch.total()).isEqualTo(150);
+    }
+
+    @Test
+    @DisplayName("A key that overtakes the weakest member replaces it")
+    void replacesWeakestMember() {
+        HeavyHittersSketch sketch = new HeavyHittersSketch(1024, 4, 2);
+        AtomicInteger changes = new AtomicInteger();
+        sketch.onTopKChange(changes::incrementAndGet);
+
+        addTimes(sketch, "alice", 5);
+        addTimes(sketch, "bob", 3);
+        assertThat(changes.get()).isEqualTo(2);
+
+        // Not above bob yet: membership unchanged
+        addTimes(sketch, "carol", 3);
+        assertThat(sketch.isTopK("carol")).isFalse();
+        assertThat(changes.get()).isEqualTo(2);
+
+        sketch.add("carol");
+
+        assertThat(sketch.isTopK("carol")).isTrue();
+        assertThat(sketch.isTopK("bob")).isFalse();
+        assertThat(changes.get()).isEqualTo(3);
+        assertThat(sketch.topK()).containsExactly(
+            new HeavyHittersSketch.Entry("alice", 5),
+            new HeavyHittersSketch.Entry("carol", 4));
+    }
+
+    @Test
+    @DisplayName("A displaced key can win its slot back")
+    void displacedKeyReturns() {
+        HeavyHittersSketch sketch = new HeavyHittersSketch(1024, 4, 1);
+        addTimes(sketch, "alice", 2);
+        addTimes(sketch, "bob", 3);
+        assertThat(sketch.topK()).extracting(HeavyHittersSketch.Entry::key).containsExactly("bob");
+
+        addTimes(sketch, "alice", 2);
+
+        assertThat(sketch.topK()).extracting(HeavyHittersSketch.Entry::key).containsExactly("alice");
+    }
+
+    @Test
+    @DisplayName("reset() clears counts and membership")
+    void resetClearsEverything() {
+        HeavyHittersSketch sketch = new HeavyHittersSketch(1024, 4, 2);
+        addTimes(sketch, "alice", 5);
+        addTimes(sketch, "bob", 3);
+
+        sketch.reset();
+
+        assertThat(sketch.total()).isZero();
+        assertThat(sketch.estimate("alice")).isZero();
+        assertThat(sketch.topK()).isEmpty();
+
+        sketch.add("carol");
+        assertThat(sketch.isTopK("carol")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Width is rounded up to a power of two; bad sizes are rejected")
+    void validatesDimensions() {
+        assertThat(new HeavyHittersSketch(1000, 4, 10).width()).isEqualTo(1024);
+        assertThatThrownBy(() -> new HeavyHittersSketch(0, 4, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeavyHittersSketch(1024, 4, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.spring_cert_notes.aop;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fingerprint ids and meter lifecycle of ExceptionStats
+ */
+@DisplayName("ExceptionStats fingerprints")
+class ExceptionStatsTest {
+
+    private MeterRegistry registry;
+    private ExceptionStats stats;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        stats = new ExceptionStats(new StaticListableBeanFactory(Map.of("registry", registry))
+            .getBeanProvider(MeterRegistry.class));
+        ReflectionTestUtils.setField(stats, "fingerprintFrames", 3);
+        ReflectionTestUtils.setField(stats, "maxFingerprints", 500);
+        ReflectionTestUtils.setField(stats, "sampleEvery", 100L);
+        ReflectionTestUtils.setField(stats, "logBurst", 5);
+        ReflectionTestUtils.setField(stats, "logRefillSeconds", 10L);
+    }
+
+    private static RuntimeException thrownAtSiteA() {
+        return new IllegalStateException("a");
+    }
+
+    private static RuntimeException thrownAtSiteB() {
+        return new IllegalStateException("b");
+    }
+
+    @Test
+    @DisplayName("Ids do not collide where String.hashCode does")
+    void idsSurviveHashCodeCollisions() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        assertThat(ExceptionStats.fingerprintId("Aa"))
+            .isNotEqualTo(ExceptionStats.fingerprintId("BB"))
+            .hasSize(16)
+            .isEqualTo(ExceptionStats.fingerprintId("Aa"));
+    }
+
+    @Test
+    @DisplayName("Same throw site is one row; its counter matches the count")
+    void groupsBySiteAndCounts() {
+        for (int i = 0; i < 3; i++) {
+            stats.record(thrownAtSiteA(), "Svc.a");
+        }
+        stats.record(thrownAtSiteB(), "Svc.b");
+
+        assertThat(stats.snapshot()).hasSize(2);
+        ExceptionStats.FingerprintStats top = stats.snapshot().iterator().next();
+        assertThat(top.getCount()).isEqualTo(3);
+        assertThat(stats.get(top.getId())).isSameAs(top);
+        assertThat(registry.get("aop.exceptions").tag("fingerprint", top.getId()).counter().count())
+            .isEqualTo(3.0);
+    }
+
+    @Test
+    @DisplayName("reset() removes rows and their counters")
+    void resetRemovesMeters() {
+        stats.record(thrownAtSiteA(), "Svc.a");
+        stats.record(thrownAtSiteB(), "Svc.b");
+        assertThat(registry.find("aop.exceptions").counters()).hasSize(2);
+
+        stats.reset();
+
+        assertThat(stats.snapshot()).isEmpty();
+        assertThat(registry.find("aop.exceptions").counters()).isEmpty();
+
+        // A new occurrence starts a fresh counter at 1
+        ExceptionStats.FingerprintStats row = stats.record(thrownAtSiteA(), "Svc.a").stats();
+        assertThat(registry.get("aop.exceptions").tag("fingerprint", row.getId()).counter().count())
+            .isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.spring_cert_notes.aop;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Role masks compiled by SecuredMethodCompiler
+ * <p>
+ * Each token is built the way JwtAuthenticationFilter does it, so every
+ * request carries a fresh authorities list.
+ */
+@DisplayName("SecuredMethodCompiler caller masks")
+class SecuredMethodCompilerTest {
+
+    @Secured(roles = "ADMIN")
+    void adminOnly() {
+    }
+
+    @Secured(roles = {"USER", "ADMIN"})
+    void userOrAdmin() {
+    }
+
+    private static Authentication token(String username, String... authorities) {
+        return new UsernamePasswordAuthenticationToken(username, null,
+            AuthorityUtils.createAuthorityList(authorities));
+    }
+
+    private static long required(SecuredMethodCompiler compiler, String methodName) throws NoSuchMethodException {
+        Method method = SecuredMethodCompilerTest.class.getDeclaredMethod(methodName);
+        return compiler.requiredMask(method, method.getAnnotation(Secured.class));
+    }
+
+    private static long cachedEntries(SecuredMethodCompiler compiler) {
+        Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(compiler, "callerMasks");
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    @Test
+    @DisplayName("Two tokens for the same user share one cache entry")
+    void sameAuthoritiesShareEntry() throws Exception {
+        SecuredMethodCompiler compiler = new SecuredMethodCompiler();
+        long admin = required(compiler, "adminOnly");
+
+        Authentication first = token("alice", "ROLE_ADMIN", "READ_PRIVILEGE");
+        Authentication second = token("alice", "READ_PRIVILEGE", "ROLE_ADMIN");
+        assertThat(first.getAuthorities()).isNotSameAs(second.getAuthorities());
+
+        assertThat(compiler.callerMask(first) & admin).isNotZero();
+        assertThat(compiler.callerMask(second) & admin).isNotZero();
+        assertThat(cachedEntries(compiler)).isEqualTo(1);
+
+        assertThat(compiler.callerMask(token("bob", "ROLE_USER")) & admin).isZero();
+        assertThat(cachedEntries(compiler)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A role registered later refreshes cached masks")
+    void newRoleInvalidatesCachedMask() throws Exception {
+        SecuredMethodCompiler compiler = new SecuredMethodCompiler();
+        required(compiler, "adminOnly");
+        Authentication user = token("bob", "ROLE_USER");
+        assertThat(compiler.callerMask(user)).isZero();
+
+        long userOrAdmin = required(compiler, "userOrAdmin");
+
+        assertThat(compiler.callerMask(token("bob", "ROLE_USER")) & userOrAdmin).isNotZero();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.spring_cert_notes.aop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * State transitions of SlidingWindowCircuitBreaker
+ * <p>
+ * Config comes from the annotated stub methods below; openDuration is short
+ * so the OPEN -> HALF_OPEN step only needs a brief sleep.
+ */
+@DisplayName("SlidingWindowCircuitBreaker state transitions")
+class SlidingWindowCircuitBreakerTest {
+
+    private static final long OPEN_DURATION_MS = 50;
+
+    @CircuitBreaker(slidingWindowSize = 4, minimumCalls = 4, failureRateThreshold = 50,
+        openDuration = OPEN_DURATION_MS, halfOpenProbes = 2, ignore = IllegalArgumentException.class)
+    void guarded() {
+    }
+
+    private static SlidingWindowCircuitBreaker newBreaker() throws NoSuchMethodException {
+        CircuitBreaker config = SlidingWindowCircuitBreakerTest.class
+            .getDeclaredMethod("guarded").getAnnotation(CircuitBreaker.class);
+        return new SlidingWindowCircuitBreaker("test", config);
+    }
+
+    private static void fail(SlidingWindowCircuitBreaker breaker, Throwable ex) {
+        breaker.onError(breaker.tryAcquirePermission(), ex);
+    }
+
+    private static void succeed(SlidingWindowCircuitBreaker breaker) {
+        breaker.onSuccess(breaker.tryAcquirePermission());
+    }
+
+    private static SlidingWindowCircuitBreaker openBreaker() throws NoSuchMethodException {
+        SlidingWindowCircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new IllegalStateException("boom"));
+        }
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void waitOpenDuration() throws InterruptedException {
+        Thread.sleep(OPEN_DURATION_MS + 20);
+    }
+
+    @Test
+    @DisplayName("Stays CLOSED below minimumCalls and under the threshold")
+    void staysClosedUnderThreshold() throws Exception {
+        SlidingWindowCircuitBreaker breaker = newBreaker();
+        fail(breaker, new IllegalStateException("boom"));
+        fail(breaker, new IllegalStateException("boom"));
+        fail(breaker, new IllegalStateException("boom"));
+        assertThat(breaker.failureRate()).isEqualTo(-1f);
+        succeed(breaker);
+        succeed(breaker);
+        succeed(breaker);
+        fail(breaker, new IllegalStateException("boom"));
+
+        // Window is the last 4 calls: 3 successes + 1 failure = 25%
+        assertThat(breaker.failureRate()).isEqualTo(25f);
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Ignored exceptions count as successes")
+    void ignoredExceptionsDoNotOpen() throws Exception {
+        SlidingWindowCircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new IllegalArgumentException("validation"));
+        }
+        assertThat(breaker.failureRate()).isZero();
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("CLOSED -> OPEN at the threshold, OPEN rejects calls")
+    void opensAtThresholdAndRejects() throws Exception {
+        SlidingWindowCircuitBreaker breaker = openBreaker();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    @DisplayName("HALF_OPEN grants exactly halfOpenProbes permits, successes close it")
+    void halfOpenProbesClose() throws Exception {
+        SlidingWindowCircuitBreaker breaker = openBreaker();
+        waitOpenDuration();
+
+        SlidingWindowCircuitBreaker.Phase first = breaker.tryAcquirePermission();
+        assertThat(first).isNotNull();
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+        SlidingWindowCircuitBreaker.Phase second = breaker.tryAcquirePermission();
+        assertThat(second).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.onSuccess(first);
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess(second);
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+        assertThat(breaker.bufferedCalls()).isZero();
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("A failed probe re-opens the breaker")
+    void failedProbeReopens() throws Exception {
+        SlidingWindowCircuitBreaker breaker = openBreaker();
+        waitOpenDuration();
+
+        SlidingWindowCircuitBreaker.Phase probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+        breaker.onError(probe, new IllegalStateException("still down"));
+
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    @DisplayName("Probes with no outcome re-open after openDuration, then a fresh round starts")
+    void hungProbesReopen() throws Exception {
+        SlidingWindowCircuitBreaker breaker = openBreaker();
+        waitOpenDuration();
+
+        // Both probes are taken and never report back
+        SlidingWindowCircuitBreaker.Phase hung = breaker.tryAcquirePermission();
+        assertThat(hung).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        waitOpenDuration();
+
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.OPEN);
+
+        waitOpenDuration();
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+
+        // A probe from the abandoned round reporting late does not count for this one
+        breaker.onSuccess(hung);
+        breaker.onSuccess(hung);
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    @DisplayName("Slow calls admitted while CLOSED cannot close a HALF_OPEN breaker")
+    void lateClosedCallsAreNotProbes() throws Exception {
+        SlidingWindowCircuitBreaker breaker = newBreaker();
+        List<SlidingWindowCircuitBreaker.Phase> slowCalls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            slowCalls.add(breaker.tryAcquirePermission());
+        }
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new IllegalStateException("boom"));
+        }
+        waitOpenDuration();
+        SlidingWindowCircuitBreaker.Phase probe = breaker.tryAcquirePermission();
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+
+        // The slow CLOSED-phase calls finish now: neither successes nor failures count
+        slowCalls.forEach(breaker::onSuccess);
+        breaker.onError(slowCalls.get(0), new IllegalStateException("late"));
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(probe);
+        succeed(breaker);
+        assertThat(breaker.state()).isEqualTo(SlidingWindowCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Concurrent callers never get more than halfOpenProbes permits")
+    void concurrentProbesAreBounded() throws Exception {
+        SlidingWindowCircuitBreaker breaker = openBreaker();
+        waitOpenDuration();
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (breaker.tryAcquirePermission() != null) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(granted.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.spring_cert_notes.aop.audit;
+
+import com.example.spring_cert_notes.aop.AopConfig;
+import com.example.spring_cert_notes.data.jdbc.JdbcConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Wiring of JdbcAuditSink in a context that scans both aop and data.jdbc
+ * <p>
+ * The sink must depend on the writer, so that on shutdown the writer is
+ * destroyed only after AuditDispatcher drained its last batch.
+ */
+@DisplayName("JdbcAuditSink wiring")
+class JdbcAuditSinkTest {
+
+    private static AnnotationConfigApplicationContext context(Class<?>... configs) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+            "aop.audit.sinks", "jdbc",
+            "app.audit.async.enabled", "true")));
+        context.register(configs);
+        context.refresh();
+        return context;
+    }
+
+    @Test
+    @DisplayName("Writer is a registered dependency of the sink, so it is destroyed after it")
+    void sinkDependsOnWriter() {
+        try (AnnotationConfigApplicationContext context = context(AopConfig.class, JdbcConfig.class)) {
+            String sink = context.getBeanNamesForType(JdbcAuditSink.class)[0];
+
+            assertThat(context.getBeanFactory().getDependenciesForBean(sink)).contains("asyncAuditLogWriter");
+            assertThat(context.getBean(JdbcAuditSink.class).isAvailable()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Without data.jdbc the sink is unavailable instead of failing the context")
+    void unavailableWithoutWriter() {
+        try (AnnotationConfigApplicationContext context = context(AopConfig.class)) {
+            assertThat(context.getBean(JdbcAuditSink.class).isAvailable()).isFalse();
+        }
+    }
+}
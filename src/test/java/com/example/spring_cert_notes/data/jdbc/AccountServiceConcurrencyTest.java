@@ -0,0 +1,106 @@
+package com.example.spring_cert_notes.data.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress test for AccountService.transferAtomic
+ * <p>
+ * N threads transfer random amounts between the same few accounts.
+ * Every successful transfer is tracked in memory; at the end the database
+ * must match that ledger exactly (no lost updates) and no balance may be negative.
+ */
+@SpringJUnitConfig(JdbcConfig.class)
+@DisplayName("AccountService atomic transfer under concurrency")
+class AccountServiceConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final long[] ACCOUNT_IDS = {1L, 2L, 3L};
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void resetBalances() {
+        jdbcTemplate.update("UPDATE users SET balance = 1000 WHERE id IN (1, 2, 3)");
+    }
+    
+    @Test
+    @DisplayName("No lost updates and no negative balances with " + THREADS + " threads")
+    void concurrentTransfersKeepLedgerConsistent() throws Exception {
+        // Expected balance per account, in whole dollars
+        AtomicLongArray expected = new AtomicLongArray(new long[]{1000, 1000, 1000});
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNT_IDS.length);
+                    int to = (from + 1 + random.nextInt(ACCOUNT_IDS.length - 1)) % ACCOUNT_IDS.length;
+                    int amount = 1 + random.nextInt(300);
+                    
+                    if (accountService.transferAtomic(ACCOUNT_IDS[from], ACCOUNT_IDS[to], amount)) {
+                        expected.addAndGet(from, -amount);
+                        expected.addAndGet(to, amount);
+                        succeeded.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        
+        assertThat(succeeded.get() + rejected.get()).isEqualTo(THREADS * TRANSFERS_PER_THREAD);
+        assertThat(succeeded.get()).isPositive();
+        
+        long total = 0;
+        for (int i = 0; i < ACCOUNT_IDS.length; i++) {
+            Double balance = jdbcTemplate.queryForObject(
+                "SELECT balance FROM users WHERE id = ?", Double.class, ACCOUNT_IDS[i]);
+            assertThat(balance).isNotNull().isGreaterThanOrEqualTo(0.0);
+            assertThat(balance).isEqualTo((double) expected.get(i));
+            total += balance.longValue();
+        }
+        assertThat(total).isEqualTo(3000);
+    }
+    
+    @Test
+    @DisplayName("Transfer exceeding the balance is rejected and rolled back")
+    void insufficientBalanceIsRolledBack() {
+        boolean applied = accountService.transferAtomic(1L, 2L, 5000);
+        
+        assertThat(applied).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = 1", Double.class)).isEqualTo(1000.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = 2", Double.class)).isEqualTo(1000.0);
+    }
+}
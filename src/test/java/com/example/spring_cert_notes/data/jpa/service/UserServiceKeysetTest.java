@@ -0,0 +1,131 @@
+package com.example.spring_cert_notes.data.jpa.service;
+
+import com.example.spring_cert_notes.data.jpa.JpaConfig;
+import com.example.spring_cert_notes.data.jpa.entity.User;
+import com.example.spring_cert_notes.data.jpa.pagination.KeysetPage;
+import com.example.spring_cert_notes.data.jpa.pagination.KeysetToken;
+import com.example.spring_cert_notes.data.jpa.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pagination in UserService
+ * <p>
+ * Walking every slice must return each user exactly once, in (sort value, id)
+ * order, even when many rows share the same sort value.
+ */
+@SpringJUnitConfig(JpaConfig.class)
+@DisplayName("UserService keyset pagination")
+class UserServiceKeysetTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> saved;
+
+    @BeforeEach
+    void seed() {
+        userRepository.deleteAll();
+        saved = new ArrayList<>();
+        // Five users share one lastName, so the slice boundaries fall inside the tie
+        String[] lastNames = {"Same", "Adams", "Same", "Same", "Zed", "Same", "Same", "Baker"};
+        for (int i = 0; i < lastNames.length; i++) {
+            saved.add(userRepository.save(new User("User" + i, lastNames[i], "user" + i + "@example.com")));
+        }
+    }
+
+    private List<Long> walk(BiFunction<String, Integer, KeysetPage<User>> fetch, int size) {
+        List<Long> ids = new ArrayList<>();
+        String token = null;
+        do {
+            KeysetPage<User> slice = fetch.apply(token, size);
+            assertThat(slice.content()).hasSizeLessThanOrEqualTo(size);
+            slice.content().forEach(user -> ids.add(user.getId()));
+            token = slice.nextToken();
+        } while (token != null);
+        return ids;
+    }
+
+    @Test
+    @DisplayName("lastName slices break ties on id: no row skipped or repeated")
+    void lastNameKeysetBreaksTiesOnId() {
+        List<Long> expected = saved.stream()
+            .sorted(Comparator.comparing(User::getLastName).thenComparing(User::getId))
+            .map(User::getId)
+            .toList();
+
+        for (int size = 1; size <= saved.size() + 1; size++) {
+            assertThat(walk(userService::findAllByLastNameKeyset, size))
+                .as("size %d", size)
+                .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("createdAt slices break ties on id: no row skipped or repeated")
+    void createdAtKeysetBreaksTiesOnId() {
+        List<Long> expected = userRepository.findAll().stream()
+            .sorted(Comparator.comparing(User::getCreatedAt).thenComparing(User::getId))
+            .map(User::getId)
+            .toList();
+
+        for (int size = 1; size <= saved.size() + 1; size++) {
+            assertThat(walk(userService::findAllByCreatedAtKeyset, size))
+                .as("size %d", size)
+                .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Last slice has no next token")
+    void lastSliceHasNoToken() {
+        KeysetPage<User> all = userService.findAllByLastNameKeyset(null, saved.size());
+        assertThat(all.content()).hasSize(saved.size());
+        assertThat(all.nextToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Size below one is rejected like PageRequest.of")
+    void rejectsNonPositiveSize() {
+        assertThatThrownBy(() -> userService.findAllByLastNameKeyset(null, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.findAllByCreatedAtKeyset(null, -1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Token round-trips, including values containing ':'")
+    void tokenRoundTrip() {
+        KeysetToken token = new KeysetToken("lastName", 42L, "O:Brien");
+        assertThat(KeysetToken.decode(token.encode(), "lastName")).isEqualTo(token);
+    }
+
+    @Test
+    @DisplayName("Tokens from another ordering or tampered tokens are rejected")
+    void rejectsForeignOrTamperedTokens() {
+        String lastNameToken = new KeysetToken("lastName", 1L, "Smith").encode();
+        assertThatThrownBy(() -> userService.findAllByCreatedAtKeyset(lastNameToken, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetToken.decode("not base64!", "lastName"))
+            .isInstanceOf(IllegalArgumentException.class);
+        String badId = Base64.getUrlEncoder().encodeToString("lastName:abc:Smith".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> KeysetToken.decode(badId, "lastName"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
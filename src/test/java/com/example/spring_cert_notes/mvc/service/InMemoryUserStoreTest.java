@@ -0,0 +1,151 @@
+package com.example.spring_cert_notes.mvc.service;
+
+import com.example.spring_cert_notes.mvc.dto.UserDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshot consistency of the copy-on-write InMemoryUserStore
+ * <p>
+ * Indexes must follow every put/remove, reads must be detached copies,
+ * and a concurrent reader must never see a half-applied write.
+ */
+@DisplayName("InMemoryUserStore snapshot consistency")
+class InMemoryUserStoreTest {
+
+    private static UserDto user(long id, String lastName, String email) {
+        return new UserDto(id, "First" + id, lastName, email);
+    }
+
+    @Test
+    @DisplayName("Users stay ordered by id regardless of insert order")
+    void keepsIdOrder() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        store.put(user(3, "Brown", "c@example.com"));
+        store.put(user(1, "Smith", "a@example.com"));
+        store.put(user(2, "Smith", "b@example.com"));
+
+        assertThat(store.all()).extracting(UserDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(store.slice(1, 5)).extracting(UserDto::getId).containsExactly(2L, 3L);
+        assertThat(store.after(1, 1)).extracting(UserDto::getId).containsExactly(2L);
+        assertThat(store.findByLastName("SMITH")).extracting(UserDto::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Replacing a user moves it between index buckets")
+    void replaceUpdatesIndexes() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        store.put(user(1, "Smith", "a@example.com"));
+        store.put(user(2, "Smith", "b@example.com"));
+
+        store.update(1L, existing -> {
+            existing.setLastName("Jones");
+            existing.setEmail("new@example.com");
+            return existing;
+        });
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.findByEmail("a@example.com")).isEmpty();
+        assertThat(store.findByEmail("NEW@example.com")).extracting(UserDto::getId).containsExactly(1L);
+        assertThat(store.findByLastName("smith")).extracting(UserDto::getId).containsExactly(2L);
+        assertThat(store.findByLastName("jones")).extracting(UserDto::getId).containsExactly(1L);
+        assertThat(store.update(99L, existing -> existing)).isNull();
+    }
+
+    @Test
+    @DisplayName("Remove drops the user from the list and every index")
+    void removeUpdatesIndexes() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        store.put(user(1, "Smith", "a@example.com"));
+        store.put(user(2, "Smith", "b@example.com"));
+
+        store.remove(1L);
+        store.remove(42L);
+
+        assertThat(store.contains(1L)).isFalse();
+        assertThat(store.get(1L)).isNull();
+        assertThat(store.all()).extracting(UserDto::getId).containsExactly(2L);
+        assertThat(store.findByEmail("a@example.com")).isEmpty();
+        assertThat(store.findByLastName("smith")).extracting(UserDto::getId).containsExactly(2L);
+        assertThat(store.search(null, "mit", null)).extracting(UserDto::getId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Mutating written or returned objects does not change the store")
+    void readsAndWritesAreDetached() {
+        InMemoryUserStore store = new InMemoryUserStore();
+        UserDto input = user(1, "Smith", "a@example.com");
+        UserDto returned = store.put(input);
+
+        input.setLastName("Changed");
+        returned.setLastName("Changed");
+        store.get(1L).setLastName("Changed");
+        store.all().get(0).setLastName("Changed");
+        store.findByEmail("a@example.com").get(0).setLastName("Changed");
+
+        assertThat(store.get(1L).getLastName()).isEqualTo("Smith");
+        assertThat(store.findByLastName("smith")).hasSize(1);
+        assertThat(store.findByLastName("changed")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Concurrent readers never see a half-applied write")
+    void readersSeeConsistentSnapshots() throws Exception {
+        InMemoryUserStore store = new InMemoryUserStore();
+        int users = 200;
+        for (long id = 1; id <= users; id++) {
+            store.put(user(id, "Even", "user" + id + "@example.com"));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            futures.add(readers.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    // Bucket and stored user always come from the same snapshot
+                    assertThat(store.all()).hasSize(users);
+                    for (UserDto found : store.findByLastName("odd")) {
+                        assertThat(found.getLastName()).isEqualTo("Odd");
+                    }
+                    for (UserDto found : store.findByLastName("even")) {
+                        assertThat(found.getLastName()).isEqualTo("Even");
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (int round = 0; round < 20; round++) {
+            String lastName = round % 2 == 0 ? "Odd" : "Even";
+            for (long id = 1; id <= users; id++) {
+                store.update(id, existing -> {
+                    existing.setLastName(lastName);
+                    return existing;
+                });
+            }
+        }
+        writing.set(false);
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        readers.shutdown();
+
+        assertThat(store.findByLastName("even")).hasSize(users);
+        assertThat(store.findByLastName("odd")).isEmpty();
+    }
+}